@@ -0,0 +1,305 @@
+package jobshop;
+
+import jobshop.encodings.ScheduleValidator;
+import jobshop.solvers.Solver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statistical benchmark of solvers, meant to tell whether a change made them faster or slower.
+ *
+ * Each solver is first run a few times on each instance to warm up the JVM, and then repeated with distinct seeds.
+ * For each (instance, solver), the benchmark reports the median and 95th percentile of the runtime, evaluations per
+ * second and gap to the best known result, as well as the time to reach a target gap.
+ *
+ * Results can be saved as a baseline. When a baseline is given, the benchmark fails (exit code 2) if a median
+ * regressed past the tolerance: runtime longer or evaluations per second lower than the baseline by more than the
+ * relative tolerance (plus one millisecond for runtimes), or gap larger by more than the gap tolerance (in
+ * percentage points).
+ */
+public final class Benchmark {
+
+    private Benchmark() {}
+
+    /** Runtime differences below this duration (in milliseconds) are measurement noise, never regressions. */
+    static final double RUNTIME_SLACK_MS = 1.0;
+
+    /** Header of baseline files. */
+    static final String HEADER = "instance,solver,runs,runtime_median,runtime_p95,evals_median,evals_p95," +
+            "gap_median,gap_p95,ttt_median,ttt_reached";
+
+    /** Statistics of the runs of a solver on an instance. */
+    static final class Stats {
+        final String instance;
+        final String solver;
+        final int runs;
+        /** Runtime in milliseconds. */
+        final double runtimeMedian, runtimeP95;
+        /** Evaluations per second. */
+        final double evalsMedian, evalsP95;
+        /** Gap to the best known result, in percent. */
+        final double gapMedian, gapP95;
+        /** Median time to reach the target gap in milliseconds, over the runs that reached it (NaN if none). */
+        final double tttMedian;
+        /** Fraction of the runs that reached the target gap. */
+        final double tttReached;
+
+        Stats(String instance, String solver, int runs, double runtimeMedian, double runtimeP95, double evalsMedian,
+              double evalsP95, double gapMedian, double gapP95, double tttMedian, double tttReached) {
+            this.instance = instance;
+            this.solver = solver;
+            this.runs = runs;
+            this.runtimeMedian = runtimeMedian;
+            this.runtimeP95 = runtimeP95;
+            this.evalsMedian = evalsMedian;
+            this.evalsP95 = evalsP95;
+            this.gapMedian = gapMedian;
+            this.gapP95 = gapP95;
+            this.tttMedian = tttMedian;
+            this.tttReached = tttReached;
+        }
+
+        String key() {
+            return instance + "," + solver;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.0f,%.0f,%.2f,%.2f,%.1f,%.2f",
+                    ResultWriter.csv(instance), ResultWriter.csv(solver),
+                    runs, runtimeMedian, runtimeP95, evalsMedian, evalsP95, gapMedian, gapP95, tttMedian, tttReached);
+        }
+
+        static Stats fromCsv(String line) {
+            String[] f = ResultWriter.csvFields(line).toArray(new String[0]);
+            if(f.length != 11)
+                throw new IllegalArgumentException("invalid baseline line: " + line);
+            return new Stats(f[0], f[1], Integer.parseInt(f[2]), Double.parseDouble(f[3]), Double.parseDouble(f[4]),
+                    Double.parseDouble(f[5]), Double.parseDouble(f[6]), Double.parseDouble(f[7]),
+                    Double.parseDouble(f[8]), Double.parseDouble(f[9]), Double.parseDouble(f[10]));
+        }
+    }
+
+    /** Value of the given percentile (in [0, 100]) of the values, with the nearest-rank method. */
+    static double percentile(double[] values, double percentile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /** Time (in milliseconds) at which the result first reached the target makespan, or -1 if it never did. */
+    static long timeToTarget(Result result, long runtime, int target) {
+        for(Trace.Point p : result.trace.points()) {
+            if(p.makespan <= target)
+                return p.time;
+        }
+        // solvers that do not record a trace only provide their final solution
+        return result.schedule.get().makespan() <= target ? runtime : -1;
+    }
+
+    /** Runs a solver repeatedly on an instance, after warmup runs, and returns the statistics of the measured runs. */
+    static Stats measure(Instance instance, String solverName, long timeoutMs, int warmups, int runs, double targetGap) {
+        int bestKnown = BestKnownResults.of(instance.name);
+        int target = (int) Math.floor(bestKnown * (1 + targetGap / 100));
+        double[] runtimes = new double[runs];
+        double[] evals = new double[runs];
+        double[] gaps = new double[runs];
+        List<Double> ttts = new ArrayList<>();
+
+        // warmup runs use seeds that are never measured
+        for(int w = 0; w < warmups; w++) {
+            Solver.getSolver(solverName, null, -1 - w).solve(instance, System.currentTimeMillis() + timeoutMs);
+        }
+        for(int r = 0; r < runs; r++) {
+            Solver solver = Solver.getSolver(solverName, null, r + 1);
+            long start = System.nanoTime();
+            Result result = solver.solve(instance, System.currentTimeMillis() + timeoutMs);
+            long runtimeNanos = System.nanoTime() - start;
+
+            if(result.schedule.isEmpty())
+                throw new IllegalStateException(solverName + " returned no schedule on " + instance.name);
+            Optional<ScheduleValidator.Violation> violation = ScheduleValidator.check(result.schedule.get());
+            if(violation.isPresent())
+                throw new IllegalStateException(solverName + " returned an invalid schedule on " + instance.name +
+                        ": " + violation.get());
+
+            runtimes[r] = runtimeNanos / 1e6;
+            evals[r] = result.metrics.evaluationsPerSecond();
+            gaps[r] = 100.0 * (result.schedule.get().makespan() - bestKnown) / bestKnown;
+            long ttt = timeToTarget(result, runtimeNanos / 1_000_000, target);
+            if(ttt >= 0)
+                ttts.add((double) ttt);
+        }
+        double tttMedian = ttts.isEmpty() ? Double.NaN
+                : percentile(ttts.stream().mapToDouble(Double::doubleValue).toArray(), 50);
+        return new Stats(instance.name, solverName, runs, percentile(runtimes, 50), percentile(runtimes, 95),
+                percentile(evals, 50), percentile(evals, 95), percentile(gaps, 50), percentile(gaps, 95),
+                tttMedian, (double) ttts.size() / runs);
+    }
+
+    /** Returns a description of each median of the current statistics that regressed from the baseline. */
+    static List<String> regressions(Stats baseline, Stats current, double tolerance, double gapTolerance) {
+        List<String> regressions = new ArrayList<>();
+        String what = current.instance + " " + current.solver + ": ";
+        if(current.runtimeMedian > baseline.runtimeMedian * (1 + tolerance / 100) + RUNTIME_SLACK_MS)
+            regressions.add(String.format(Locale.ROOT, "%sruntime %.1fms, baseline %.1fms", what,
+                    current.runtimeMedian, baseline.runtimeMedian));
+        if(current.evalsMedian < baseline.evalsMedian * (1 - tolerance / 100))
+            regressions.add(String.format(Locale.ROOT, "%sevaluations per second %.0f, baseline %.0f", what,
+                    current.evalsMedian, baseline.evalsMedian));
+        if(current.gapMedian > baseline.gapMedian + gapTolerance)
+            regressions.add(String.format(Locale.ROOT, "%sgap %.2f%%, baseline %.2f%%", what,
+                    current.gapMedian, baseline.gapMedian));
+        return regressions;
+    }
+
+    /** Returns the regressions of all current statistics that have a row in the baseline, in the order of the current
+     * statistics. The benchmark fails if there is any. */
+    static List<String> regressions(Map<String, Stats> baseline, List<Stats> current, double tolerance, double gapTolerance) {
+        List<String> regressions = new ArrayList<>();
+        for(Stats s : current) {
+            if(baseline.containsKey(s.key()))
+                regressions.addAll(regressions(baseline.get(s.key()), s, tolerance, gapTolerance));
+        }
+        return regressions;
+    }
+
+    static Map<String, Stats> readBaseline(Path file) throws IOException {
+        return parseBaseline(Files.readAllLines(file));
+    }
+
+    /** Parses the lines of a baseline file, indexing the statistics by instance and solver. */
+    static Map<String, Stats> parseBaseline(List<String> lines) {
+        Map<String, Stats> baseline = new LinkedHashMap<>();
+        for(String line : lines) {
+            if(line.isBlank() || line.equals(HEADER))
+                continue;
+            Stats s = Stats.fromCsv(line);
+            baseline.put(s.key(), s);
+        }
+        return baseline;
+    }
+
+    static void writeBaseline(Path file, List<Stats> stats) throws IOException {
+        try(BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write(HEADER);
+            out.newLine();
+            for(Stats s : stats) {
+                out.write(s.toCsv());
+                out.newLine();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-benchmark").build()
+                .defaultHelp(true)
+                .description("Benchmarks solvers with repeated runs and compares the results with a baseline.");
+        parser.addArgument("-t", "--timeout")
+                .setDefault(1000L)
+                .type(Long.class)
+                .help("Solver timeout of each run, in milliseconds.");
+        parser.addArgument("--solver")
+                .nargs("+")
+                .required(true)
+                .help("Solver(s) to benchmark.");
+        parser.addArgument("--instance")
+                .nargs("+")
+                .required(true)
+                .help("Instance(s) to solve (or prefix of their names).");
+        parser.addArgument("--warmup")
+                .setDefault(2)
+                .type(Integer.class)
+                .help("Number of unmeasured runs of each solver on each instance, to warm up the JVM.");
+        parser.addArgument("--runs")
+                .setDefault(10)
+                .type(Integer.class)
+                .help("Number of measured runs of each solver on each instance, each with a distinct seed.");
+        parser.addArgument("--target")
+                .setDefault(5.0)
+                .type(Double.class)
+                .help("Target gap to the best known result (in percent) for the time-to-target statistics.");
+        parser.addArgument("--save")
+                .help("File in which to save the results, to be used as the baseline of later runs.");
+        parser.addArgument("--baseline")
+                .help("Baseline file of a previous run. The benchmark fails if a result regressed past the tolerance.");
+        parser.addArgument("--tolerance")
+                .setDefault(10.0)
+                .type(Double.class)
+                .help("Accepted relative regression of the median runtime and evaluations per second, in percent.");
+        parser.addArgument("--gap-tolerance")
+                .setDefault(1.0)
+                .type(Double.class)
+                .help("Accepted increase of the median gap to the best known result, in percentage points.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        List<String> instances = new ArrayList<>();
+        for(String prefix : ns.<String>getList("instance")) {
+            List<String> matches = BestKnownResults.instancesMatching(prefix);
+            if(matches.isEmpty()) {
+                System.err.println("ERROR: instance prefix \"" + prefix + "\" does not match any instance.");
+                System.exit(1);
+            }
+            instances.addAll(matches);
+        }
+        List<String> solvers = ns.getList("solver");
+        solvers.forEach(name -> Solver.getSolver(name)); // fail early on unknown solvers
+
+        try {
+            Map<String, Stats> baseline = ns.getString("baseline") != null
+                    ? readBaseline(Paths.get(ns.getString("baseline"))) : Map.of();
+
+            System.out.printf("%-8s %-12s %5s %21s %21s %15s %17s%n", "instance", "solver", "runs",
+                    "runtime ms (p50/p95)", "eval/s (p50/p95)", "gap % (p50/p95)",
+                    "ttt" + ns.getDouble("target") + "% ms (ok)");
+            List<Stats> results = new ArrayList<>();
+            for(String instanceName : instances) {
+                Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+                for(String solver : solvers) {
+                    Stats s = measure(instance, solver, ns.getLong("timeout"), ns.getInt("warmup"),
+                            ns.getInt("runs"), ns.getDouble("target"));
+                    results.add(s);
+                    System.out.printf(Locale.ROOT, "%-8s %-12s %5d %10.1f %10.1f %10.0f %10.0f %7.2f %7.2f %10.1f (%3.0f%%)%n",
+                            s.instance, s.solver, s.runs, s.runtimeMedian, s.runtimeP95, s.evalsMedian, s.evalsP95,
+                            s.gapMedian, s.gapP95, s.tttMedian, 100 * s.tttReached);
+                }
+            }
+
+            if(ns.getString("save") != null)
+                writeBaseline(Paths.get(ns.getString("save")), results);
+
+            List<String> regressions = regressions(baseline, results, ns.getDouble("tolerance"), ns.getDouble("gap_tolerance"));
+            if(!regressions.isEmpty()) {
+                System.out.println();
+                System.out.println("REGRESSIONS:");
+                regressions.forEach(r -> System.out.println("  " + r));
+                System.exit(2);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
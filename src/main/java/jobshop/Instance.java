@@ -3,9 +3,12 @@ package jobshop;
 import jobshop.encodings.Task;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
@@ -24,15 +27,20 @@ public final class Instance {
     /** Number of machines, assumed to be same as number of tasks. */
     public final int numMachines;
 
-    /** Matrix containing the duration of all tasks. */
-    final int[][] durations;
+    // Durations of all tasks, the duration of task (j, t) being at index j * numTasks + t.
+    // Durations are stored as shorts if they all fit in a short, otherwise as ints: exactly one of the two arrays is
+    // non-null. This halves the memory (and cache) footprint of the instance in the common case.
+    final short[] shortDurations;
+    final int[] intDurations;
 
-    /** Matrix containing the machine on which each task must be scheduled. */
-    final int[][] machines;
+    // Machines of all tasks, with the same layout as durations. Stored as bytes if there are at most 128 machines.
+    final byte[] byteMachines;
+    final short[] shortMachines;
 
     /** Duration of the given task. */
     public int duration(int job, int task) {
-        return durations[job][task];
+        int i = job * numTasks + task;
+        return shortDurations != null ? shortDurations[i] : intDurations[i];
     }
 
     /** Duration of the given task. */
@@ -42,7 +50,8 @@ public final class Instance {
 
     /** Machine on which the given task must be scheduled. */
     public int machine(int job, int task) {
-        return machines[job][task];
+        int i = job * numTasks + task;
+        return byteMachines != null ? byteMachines[i] : shortMachines[i];
     }
 
     /** Machine on which the given task must be scheduled. */
@@ -60,24 +69,59 @@ public final class Instance {
     }
 
     /**
-     * Creates a new instance, with uninitialized durations and machines.
+     * Creates a new instance.
      * This should no be called directly. Instead, Instance objects should be created with the
      * <code>Instance.fromFile()</code> static method.
+     *
+     * @param machines Machine of each task, the machine of task (j, t) being at index j * numTasks + t.
+     * @param durations Duration of each task, with the same layout as machines.
      */
-    Instance(String name, int numJobs, int numTasks) {
+    Instance(String name, int numJobs, int numTasks, int[] machines, int[] durations) {
         this.name = name;
         this.numJobs = numJobs;
         this.numTasks = numTasks;
         this.numMachines = numTasks;
 
-        durations = new int[numJobs][numTasks];
-        machines = new int[numJobs][numTasks];
+        if(numMachines > Short.MAX_VALUE + 1)
+            throw new IllegalArgumentException("Too many machines: " + numMachines);
+        for(int i = 0; i < numJobs * numTasks; i++) {
+            if(machines[i] < 0 || machines[i] >= numMachines)
+                throw new IllegalArgumentException("Invalid machine " + machines[i]);
+            if(durations[i] < 0)
+                throw new IllegalArgumentException("Invalid duration " + durations[i]);
+        }
+
+        if(numMachines <= Byte.MAX_VALUE + 1) {
+            byteMachines = new byte[numJobs * numTasks];
+            shortMachines = null;
+            for(int i = 0; i < byteMachines.length; i++)
+                byteMachines[i] = (byte) machines[i];
+        } else {
+            byteMachines = null;
+            shortMachines = new short[numJobs * numTasks];
+            for(int i = 0; i < shortMachines.length; i++)
+                shortMachines[i] = (short) machines[i];
+        }
+
+        if(Arrays.stream(durations, 0, numJobs * numTasks).allMatch(d -> d <= Short.MAX_VALUE)) {
+            shortDurations = new short[numJobs * numTasks];
+            intDurations = null;
+            for(int i = 0; i < shortDurations.length; i++)
+                shortDurations[i] = (short) durations[i];
+        } else {
+            shortDurations = null;
+            intDurations = Arrays.copyOf(durations, numJobs * numTasks);
+        }
     }
 
     /** Parses a instance from a file. */
     public static Instance fromFile(Path path) throws IOException {
-        String name = path.getFileName().toString();
-        Iterator<String> lines = Files.readAllLines(path).stream()
+        return fromLines(path.getFileName().toString(), Files.readAllLines(path));
+    }
+
+    /** Parses an instance from the lines of an instance file. Lines starting with '#' are ignored. */
+    public static Instance fromLines(String name, List<String> allLines) {
+        Iterator<String> lines = allLines.stream()
                 .filter(l -> !l.startsWith("#"))
                 .collect(Collectors.toList())
                 .iterator();
@@ -85,16 +129,34 @@ public final class Instance {
         Scanner header = new Scanner(lines.next());
         int numJobs = header.nextInt();
         int numTasks = header.nextInt();
-        Instance pb = new Instance(name, numJobs, numTasks);
+        int[] machines = new int[numJobs * numTasks];
+        int[] durations = new int[numJobs * numTasks];
 
         for(int job = 0 ; job<numJobs ; job++) {
             Scanner line = new Scanner(lines.next());
             for(int task = 0 ; task < numTasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+                machines[job * numTasks + task] = line.nextInt();
+                durations[job * numTasks + task] = line.nextInt();
             }
         }
 
-        return pb;
+        return new Instance(name, numJobs, numTasks, machines, durations);
+    }
+
+    /** Writes this instance in the format of the files of the instances/ folder. */
+    public void writeTo(Writer out) throws IOException {
+        out.write("# instance " + name + "\n");
+        out.write(numJobs + " " + numTasks + "\n");
+        StringBuilder line = new StringBuilder();
+        for(int job = 0 ; job<numJobs ; job++) {
+            line.setLength(0);
+            for(int task = 0 ; task < numTasks ; task++) {
+                if(task > 0)
+                    line.append(' ');
+                line.append(machine(job, task)).append(' ').append(duration(job, task));
+            }
+            line.append('\n');
+            out.append(line);
+        }
     }
 }
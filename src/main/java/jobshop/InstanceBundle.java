@@ -0,0 +1,227 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A single binary file containing many instances and their best known results, memory-mapped for reading.
+ *
+ * Instances are only decoded when loaded, and looking up instances by prefix is a binary search in the index, which
+ * is sorted by name: selecting and loading a family of instances costs close to nothing compared to parsing their
+ * text files.
+ *
+ * Layout of the file (all integers are big-endian 32 bits):
+ * <pre>
+ *   header:  MAGIC, VERSION, number of instances N
+ *   index:   N entries sorted by name, each of
+ *            offset of the name, length of the name, best known result (-1 if unknown), numJobs, numTasks,
+ *            offset of the data
+ *   names:   UTF-8 bytes of all names
+ *   data:    for each instance, machines and then durations of all tasks, job after job (2 * numJobs * numTasks ints)
+ * </pre>
+ * Offsets are relative to the start of the file.
+ *
+ * Bundles are built from the instances/ folder with <code>main</code> (gradle task <code>bundleInstances</code>).
+ */
+public final class InstanceBundle {
+
+    /** First bytes of a bundle: "JSIB" in ASCII. */
+    static final int MAGIC = 0x4A534942;
+    /** Version of the layout. */
+    static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 3;
+    private static final int ENTRY_INTS = 6;
+    private static final int NAME_OFFSET = 0, NAME_LENGTH = 1, BEST_KNOWN = 2, NUM_JOBS = 3, NUM_TASKS = 4, DATA = 5;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    // names of the instances in the order of the index (decoded once when opening the bundle)
+    private final String[] names;
+
+    private InstanceBundle(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if(buffer.limit() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("not an instance bundle");
+        if(buffer.getInt(Integer.BYTES) != VERSION)
+            throw new IllegalArgumentException("unsupported bundle version " + buffer.getInt(Integer.BYTES));
+        this.size = buffer.getInt(2 * Integer.BYTES);
+        this.names = new String[size];
+        byte[] bytes = new byte[0];
+        for(int i = 0; i < size; i++) {
+            int length = entry(i, NAME_LENGTH);
+            if(bytes.length < length)
+                bytes = new byte[length];
+            buffer.duplicate().position(entry(i, NAME_OFFSET)).get(bytes, 0, length);
+            names[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Opens a bundle by memory-mapping the given file. */
+    public static InstanceBundle open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new InstanceBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Returns the given field of the i-th entry of the index. */
+    private int entry(int i, int field) {
+        return buffer.getInt((HEADER_INTS + i * ENTRY_INTS + field) * Integer.BYTES);
+    }
+
+    /** Position of the instance in the index, or a negative value if it is not in the bundle. */
+    private int indexOf(String name) {
+        return Arrays.binarySearch(names, name);
+    }
+
+    /** Names of all instances in the bundle, in alphabetical order. */
+    public List<String> names() {
+        return List.of(names);
+    }
+
+    /** Returns true if the bundle contains the given instance. */
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /** Returns all instances whose name starts with the given prefix, in alphabetical order. */
+    public List<String> instancesMatching(String prefix) {
+        // the matching names are contiguous in the sorted index, starting from the insertion point of the prefix
+        int first = indexOf(prefix);
+        if(first < 0)
+            first = -first - 1;
+        int last = first;
+        while(last < size && names[last].startsWith(prefix))
+            last++;
+        return List.of(names).subList(first, last);
+    }
+
+    /** Best known result of the instance, or -1 if it is unknown. */
+    public int bestKnown(String name) {
+        return entry(checkedIndexOf(name), BEST_KNOWN);
+    }
+
+    /** Loads an instance of the bundle. */
+    public Instance load(String name) {
+        int i = checkedIndexOf(name);
+        int numJobs = entry(i, NUM_JOBS);
+        int numTasks = entry(i, NUM_TASKS);
+        int[] machines = new int[numJobs * numTasks];
+        int[] durations = new int[numJobs * numTasks];
+        ByteBuffer data = buffer.duplicate().position(entry(i, DATA));
+        data.asIntBuffer().get(machines).get(durations);
+        return new Instance(name, numJobs, numTasks, machines, durations);
+    }
+
+    private int checkedIndexOf(String name) {
+        int i = indexOf(name);
+        if(i < 0)
+            throw new IllegalArgumentException("Unknown instance in bundle: " + name);
+        return i;
+    }
+
+    /** Writes a bundle containing the given instances, with the best known results of BestKnownResults. */
+    public static void write(Path file, List<Instance> instances) throws IOException {
+        List<Instance> sorted = instances.stream()
+                .sorted((a, b) -> a.name.compareTo(b.name))
+                .collect(Collectors.toList());
+        byte[][] names = new byte[sorted.size()][];
+        int namesSize = 0;
+        long dataSize = 0;
+        for(int i = 0; i < sorted.size(); i++) {
+            if(i > 0 && sorted.get(i).name.equals(sorted.get(i - 1).name))
+                throw new IllegalArgumentException("Duplicate instance " + sorted.get(i).name);
+            names[i] = sorted.get(i).name.getBytes(StandardCharsets.UTF_8);
+            namesSize += names[i].length;
+            dataSize += 2L * sorted.get(i).numJobs * sorted.get(i).numTasks * Integer.BYTES;
+        }
+        int namesStart = (HEADER_INTS + sorted.size() * ENTRY_INTS) * Integer.BYTES;
+        long total = namesStart + namesSize + dataSize;
+        if(total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Bundle too large: " + total + " bytes");
+
+        ByteBuffer out = ByteBuffer.allocate((int) total);
+        out.putInt(MAGIC).putInt(VERSION).putInt(sorted.size());
+        int nameOffset = namesStart;
+        int dataOffset = namesStart + namesSize;
+        for(int i = 0; i < sorted.size(); i++) {
+            Instance instance = sorted.get(i);
+            int best = BestKnownResults.isKnown(instance.name) ? BestKnownResults.of(instance.name) : -1;
+            out.putInt(nameOffset).putInt(names[i].length).putInt(best)
+                    .putInt(instance.numJobs).putInt(instance.numTasks).putInt(dataOffset);
+            nameOffset += names[i].length;
+            dataOffset += 2 * instance.numJobs * instance.numTasks * Integer.BYTES;
+        }
+        for(byte[] name : names)
+            out.put(name);
+        for(Instance instance : sorted) {
+            for(int job = 0; job < instance.numJobs; job++)
+                for(int task = 0; task < instance.numTasks; task++)
+                    out.putInt(instance.machine(job, task));
+            for(int job = 0; job < instance.numJobs; job++)
+                for(int task = 0; task < instance.numTasks; task++)
+                    out.putInt(instance.duration(job, task));
+        }
+
+        // write to a temporary file first so that readers never see a partial bundle
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-bundle").build()
+                .defaultHelp(true)
+                .description("Packs all instances of a folder and their best known results into a binary bundle.");
+        parser.addArgument("--instances")
+                .setDefault("instances")
+                .help("Folder containing the instance files (files without extension).");
+        parser.addArgument("-o", "--output")
+                .setDefault("instances.bundle")
+                .help("Bundle file to create.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try(Stream<Path> files = Files.list(Paths.get(ns.getString("instances")))) {
+            List<Instance> instances = new ArrayList<>();
+            // instance files have no extension (the folder also contains a README.md)
+            List<Path> instanceFiles = files
+                    .filter(f -> Files.isRegularFile(f) && !f.getFileName().toString().contains("."))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for(Path file : instanceFiles) {
+                instances.add(Instance.fromFile(file));
+            }
+            Path output = Paths.get(ns.getString("output"));
+            write(output, instances);
+            System.out.println("Wrote " + instances.size() + " instances to " + output);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generator of random jobshop instances, following the procedure used by Taillard to generate the ta01-ta80 instances.
+ *
+ * Durations are drawn uniformly in [1, 99] and each job visits the machines in a random order. Generation is
+ * deterministic: the same seeds always produce the same instance. For instance, the time seed 840612802 and machine
+ * seed 398197754 produce the 15x15 instance ta01.
+ *
+ * E. Taillard, "Benchmarks for basic scheduling problems", European Journal of Operational Research, 1993.
+ */
+public final class InstanceGenerator {
+
+    private InstanceGenerator() {}
+
+    /** The random number generator of Taillard (Lehmer generator with multiplier 16807). */
+    static final class TaillardRandom {
+        private static final int M = 2147483647, A = 16807, B = 127773, C = 2836;
+        private int seed;
+
+        TaillardRandom(int seed) {
+            this.seed = seed;
+        }
+
+        /** Uniformly distributed integer in [low, high]. */
+        int unif(int low, int high) {
+            int k = seed / B;
+            seed = A * (seed % B) - k * C;
+            if(seed < 0)
+                seed += M;
+            double value01 = seed / (double) M;
+            return low + (int) Math.floor(value01 * (high - low + 1));
+        }
+    }
+
+    /** Generates a Taillard instance.
+     *
+     * @param name Name of the instance.
+     * @param numJobs Number of jobs.
+     * @param numMachines Number of machines (and tasks per job).
+     * @param timeSeed Seed used to draw the durations.
+     * @param machineSeed Seed used to draw the order in which each job visits the machines.
+     */
+    public static Instance taillard(String name, int numJobs, int numMachines, int timeSeed, int machineSeed) {
+        int[] durations = new int[numJobs * numMachines];
+        int[] machines = new int[numJobs * numMachines];
+
+        TaillardRandom time = new TaillardRandom(timeSeed);
+        for(int i = 0; i < durations.length; i++) {
+            durations[i] = time.unif(1, 99);
+        }
+
+        TaillardRandom machine = new TaillardRandom(machineSeed);
+        for(int job = 0; job < numJobs; job++) {
+            int row = job * numMachines;
+            for(int t = 0; t < numMachines; t++) {
+                machines[row + t] = t;
+            }
+            for(int t = 0; t < numMachines; t++) {
+                int other = machine.unif(t, numMachines - 1);
+                int tmp = machines[row + t];
+                machines[row + t] = machines[row + other];
+                machines[row + other] = tmp;
+            }
+        }
+
+        return new Instance(name, numJobs, numMachines, machines, durations);
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-generator").build()
+                .defaultHelp(true)
+                .description("Generates random jobshop instances with Taillard's procedure.");
+        parser.addArgument("-j", "--jobs")
+                .type(Integer.class)
+                .required(true)
+                .help("Number of jobs.");
+        parser.addArgument("-m", "--machines")
+                .type(Integer.class)
+                .required(true)
+                .help("Number of machines.");
+        parser.addArgument("--time-seed")
+                .type(Integer.class)
+                .setDefault(1)
+                .help("Seed used to draw the durations.");
+        parser.addArgument("--machine-seed")
+                .type(Integer.class)
+                .setDefault(2)
+                .help("Seed used to draw the machine order of each job.");
+        parser.addArgument("-o", "--output")
+                .required(true)
+                .help("File in which the instance is written. Its name is used as the name of the instance.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        Path output = Paths.get(ns.getString("output"));
+        Instance instance = taillard(output.getFileName().toString(), ns.getInt("jobs"), ns.getInt("machines"),
+                ns.getInt("time_seed"), ns.getInt("machine_seed"));
+        try(Writer out = Files.newBufferedWriter(output)) {
+            instance.writeTo(out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
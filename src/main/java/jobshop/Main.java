@@ -1,16 +1,29 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import jobshop.encodings.GanttWriter;
+import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleValidator;
+import jobshop.jfr.Recordings;
+import jobshop.server.IslandSolver;
+import jobshop.server.SolverServer;
 import jobshop.solvers.*;
+import jdk.jfr.Recording;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -31,13 +44,68 @@ public class Main {
                 .help("Solver timeout in seconds for each instance. Default is 1 second.");
         parser.addArgument("--solver")
                 .nargs("+")
-                .required(true)
-                .help("Solver(s) to use (space separated if more than one)");
+                .help("Solver(s) to use (space separated if more than one). Required unless --server is given.");
         parser.addArgument("--instance")
                 .nargs("+")
-                .required(true)
-                .help("Instance(s) to solve (space separated if more than one). All instances starting with the given " +
+                .help("Required unless --server is given. "+
+                        "Instance(s) to solve (space separated if more than one). All instances starting with the given " +
                         "string will be selected. (e.g. \"ft\" will select the instances ft06, ft10 and ft20.");
+        parser.addArgument("--server")
+                .type(Integer.class)
+                .help("Instead of solving instances, run a solver service on the given port of the loopback " +
+                        "interface. See jobshop.server.SolverServer for the protocol.");
+        parser.addArgument("--workers")
+                .type(Integer.class)
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .help("Number of jobs solved concurrently by the solver service.");
+        parser.addArgument("--queue")
+                .type(Integer.class)
+                .setDefault(64)
+                .help("Maximum number of jobs waiting in the queue of the solver service.");
+        parser.addArgument("--store")
+                .help("Directory of a store of the best solution found for each instance. Local search solvers start " +
+                        "from the stored solution and the store is updated whenever a solver beats it.");
+        parser.addArgument("-o", "--output")
+                .help("File in which to write machine-readable results, in addition to the table printed on the " +
+                        "standard output.");
+        parser.addArgument("--format")
+                .type(ResultWriter.Format.class)
+                .setDefault(ResultWriter.Format.CSV)
+                .help("Format of the machine-readable results written to the output file.");
+        parser.addArgument("--metrics")
+                .action(Arguments.storeTrue())
+                .help("After the result table, print the work done by each solver on each instance (iterations, " +
+                        "neighbors generated and evaluated, decodes, time to best, evaluations per second).");
+        parser.addArgument("--jfr")
+                .help("Record the execution with the JDK Flight Recorder (including the solvers' custom events) and " +
+                        "write the recording to the given file.");
+        parser.addArgument("--trace")
+                .action(Arguments.storeTrue())
+                .help("Also write to the output file the improvement trace of each solver: time, iteration and " +
+                        "makespan of every new best solution.");
+        parser.addArgument("--bundle")
+                .help("Instance bundle (see InstanceBundle) from which to select and load the instances and their " +
+                        "best known results, instead of the instances/ folder.");
+        parser.addArgument("--islands")
+                .type(Integer.class)
+                .help("Run each solver as an island search on this number of worker JVMs launched on the local " +
+                        "machine, exchanging their best solutions periodically (see jobshop.server.IslandSolver).");
+        parser.addArgument("--island-workers")
+                .nargs("+")
+                .help("Run each solver as an island search on workers that are already running " +
+                        "(jobshop.server.IslandWorker), given as host:port.");
+        parser.addArgument("--epoch")
+                .type(Long.class)
+                .setDefault(500L)
+                .help("Time between two exchanges of solutions between islands, in milliseconds.");
+        parser.addArgument("--gantt")
+                .help("Directory in which to write the Gantt chart of each solution, as a file named " +
+                        "<instance>-<solver>.svg (or .html), where characters other than letters, digits, '.', '_' " +
+                        "and '-' are replaced by '_'. Tasks on the critical path are outlined.");
+        parser.addArgument("--gantt-format")
+                .choices("svg", "html")
+                .setDefault("svg")
+                .help("Format of the Gantt charts: an SVG image or an HTML page embedding it.");
 
         // parse command line arguments
         Namespace ns = null;
@@ -54,6 +122,27 @@ public class Main {
             System.exit(0);
         }
 
+        // the solution store is used by both the solver service and the benchmarks
+        SolutionStore store = null;
+        if(ns.getString("store") != null) {
+            try {
+                store = new SolutionStore(Paths.get(ns.getString("store")));
+            } catch (IOException e) {
+                System.err.println("ERROR: cannot open solution store: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        if(ns.getInt("server") != null) {
+            runServer(ns.getInt("server"), ns.getInt("workers"), ns.getInt("queue"), store);
+            return;
+        }
+        if(ns.getList("solver") == null || ns.getList("instance") == null) {
+            System.err.println("ERROR: arguments --solver and --instance are required.");
+            parser.printUsage();
+            System.exit(1);
+        }
+
         PrintStream output = System.out;
 
         // convert the timeout from seconds to milliseconds.
@@ -62,16 +151,41 @@ public class Main {
         // Get the list of solvers that we should benchmark.
         // We also check that we have a solver available for the given name and print an error message otherwise.
         List<String> solversToTest = ns.getList("solver");
-        List<Solver> solvers = solversToTest.stream().map(Solver::getSolver).collect(Collectors.toList());
+        final SolutionStore solutionStore = store;
+        List<Solver> solvers = solversToTest.stream().map(name -> Solver.getSolver(name, solutionStore)).collect(Collectors.toList());
+        if(ns.getInt("islands") != null || ns.getList("island_workers") != null) {
+            solvers = islandSolvers(solversToTest, ns.getInt("islands"), ns.getList("island_workers"), ns.getLong("epoch"));
+        }
+
+        // instances are read from the bundle if one is given, from the instances/ folder otherwise
+        InstanceBundle bundle = null;
+        if(ns.getString("bundle") != null) {
+            try {
+                bundle = InstanceBundle.open(Paths.get(ns.getString("bundle")));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("ERROR: cannot open instance bundle: " + e.getMessage());
+                System.exit(1);
+            }
+        }
 
         // retrieve all instances on which we should run the solvers.
         List<String> instances = new ArrayList<>();
         List<String> instancePrefixes = ns.getList("instance");
         for(String instancePrefix : instancePrefixes) {
-            List<String> matches = BestKnownResults.instancesMatching(instancePrefix);
+            List<String> matches;
+            if(bundle != null) {
+                // only keep instances with a best known result, as with BestKnownResults
+                final InstanceBundle b = bundle;
+                matches = b.instancesMatching(instancePrefix).stream()
+                        .filter(name -> b.bestKnown(name) >= 0)
+                        .collect(Collectors.toList());
+            } else {
+                matches = BestKnownResults.instancesMatching(instancePrefix);
+            }
             if(matches.isEmpty()) {
                 System.err.println("ERROR: instance prefix \"" + instancePrefix + "\" does not match any instance.");
-                System.err.println("       available instances: " + Arrays.toString(BestKnownResults.instances));
+                System.err.println("       available instances: " +
+                        (bundle != null ? bundle.names() : Arrays.toString(BestKnownResults.instances)));
                 System.exit(1);
             }
             instances.addAll(matches);
@@ -82,7 +196,30 @@ public class Main {
         // average distance to best known result for each solver
         float[] avg_distances = new float[solversToTest.size()];
 
+        // machine-readable output, if requested
+        ResultWriter writer = null;
+        boolean writeTraces = ns.getBoolean("trace");
+        // directory of the Gantt charts, if requested
+        Path ganttDir = ns.getString("gantt") != null ? Paths.get(ns.getString("gantt")) : null;
+        String ganttFormat = ns.getString("gantt_format");
+        // metrics of each (instance, solver), printed after the result table if requested
+        boolean printMetrics = ns.getBoolean("metrics");
+        List<String> metricsLines = new ArrayList<>();
+
+        // flight recording, if requested
+        Recording recording = null;
+
         try {
+            if(ns.getString("jfr") != null) {
+                recording = Recordings.start(Paths.get(ns.getString("jfr")));
+            }
+            if(ganttDir != null) {
+                Files.createDirectories(ganttDir);
+            }
+            if(ns.getString("output") != null) {
+                writer = new ResultWriter(Files.newBufferedWriter(Paths.get(ns.getString("output"))), ns.get("format"));
+            }
+
             // header of the result table :
             //   - solver names (first line)
             //   - name of each column (second line)
@@ -99,11 +236,12 @@ public class Main {
             // for all instances, load it from f
             for(String instanceName : instances) {
                 // get the best known result for this instance
-                int bestKnown = BestKnownResults.of(instanceName);
+                int bestKnown = bundle != null ? bundle.bestKnown(instanceName) : BestKnownResults.of(instanceName);
 
-                // load instance from file.
-                Path path = Paths.get("instances/", instanceName);
-                Instance instance = Instance.fromFile(path);
+                // load instance from the bundle or from its file.
+                Instance instance = bundle != null
+                        ? bundle.load(instanceName)
+                        : Instance.fromFile(Paths.get("instances/", instanceName));
 
                 // print some general statistics on the instance
                 output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
@@ -123,8 +261,13 @@ public class Main {
                     long runtime = System.currentTimeMillis() - start;
 
                     // check that the solver returned a valid solution
-                    if(result.schedule.isEmpty() || !result.schedule.get().isValid()) {
-                        System.err.println("ERROR: solver returned an invalid schedule");
+                    if(result.schedule.isEmpty()) {
+                        System.err.println("ERROR: solver returned no schedule");
+                        System.exit(1); // bug in implementation, bail out
+                    }
+                    Optional<ScheduleValidator.Violation> violation = ScheduleValidator.check(result.schedule.get());
+                    if(violation.isPresent()) {
+                        System.err.println("ERROR: solver returned an invalid schedule: " + violation.get());
                         System.exit(1); // bug in implementation, bail out
                     }
                     // we have a valid schedule
@@ -138,6 +281,34 @@ public class Main {
 
                     output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
                     output.flush();
+
+                    if(store != null) {
+                        // remember the solution for the next runs if it beats the stored one
+                        store.update(new ResourceOrder(schedule), makespan);
+                    }
+
+                    if(printMetrics) {
+                        metricsLines.add(String.format("%-8s %-12s %s", instanceName, solversToTest.get(solverId), result.metrics));
+                    }
+
+                    if(writer != null) {
+                        String solverName = solversToTest.get(solverId);
+                        writer.result(instanceName, solverName, runtime, makespan, bestKnown, result.cause);
+                        if(writeTraces)
+                            writer.trace(instanceName, solverName, result.trace);
+                    }
+
+                    if(ganttDir != null) {
+                        // solver names may contain paths or pipeline syntax ('>', '(', ',') that are not valid in a file name
+                        String fileName = (instanceName + "-" + solversToTest.get(solverId)).replaceAll("[^A-Za-z0-9._-]", "_");
+                        Path file = ganttDir.resolve(fileName + "." + ganttFormat);
+                        try(Writer out = Files.newBufferedWriter(file)) {
+                            if(ganttFormat.equals("html"))
+                                GanttWriter.html(schedule, out);
+                            else
+                                GanttWriter.svg(schedule, out);
+                        }
+                    }
                 }
                 output.println();
             }
@@ -148,7 +319,23 @@ public class Main {
             for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
                 output.printf("%7.1f %8s %5.1f        ", avg_runtimes[solverId], "-", avg_distances[solverId]);
             }
+            output.println();
 
+            if(printMetrics) {
+                output.println();
+                output.printf("%-8s %-12s %s%n", "instance", "solver", "metrics");
+                metricsLines.forEach(output::println);
+            }
+
+            if(writer != null) {
+                // wait for all results to be written
+                writer.close();
+            }
+            if(recording != null) {
+                // stopping the recording writes it to its destination
+                recording.stop();
+                recording.close();
+            }
 
 
         } catch (Exception e) {
@@ -157,4 +344,44 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /** Creates an island solver for each solver name, all sharing the same workers.
+     *
+     * Workers are launched on the local machine if numIslands is given, and are reached at the given addresses
+     * (host:port) otherwise. Launched workers are stopped when the JVM exits.
+     */
+    private static List<Solver> islandSolvers(List<String> names, Integer numIslands, List<String> addresses, long epoch) {
+        List<Solver> solvers = new ArrayList<>();
+        try {
+            List<InetSocketAddress> workers = new ArrayList<>();
+            if(numIslands != null) {
+                IslandSolver launched = IslandSolver.launch(numIslands, names.get(0), epoch, 0);
+                workers.addAll(launched.workers());
+                solvers.add(launched);
+            } else {
+                for(String address : addresses) {
+                    int colon = address.lastIndexOf(':');
+                    workers.add(new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1))));
+                }
+            }
+            for(String name : names.subList(solvers.size(), names.size())) {
+                solvers.add(IslandSolver.connect(workers, name, epoch, 0));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: cannot set up the island workers: " + e);
+            System.exit(1);
+        }
+        return solvers;
+    }
+
+    /** Runs a solver service until the JVM is stopped. */
+    private static void runServer(int port, int workers, int queue, SolutionStore store) {
+        try(SolverServer server = new SolverServer(port, workers, queue, store)) {
+            System.out.println("Solver service listening on localhost:" + server.port());
+            server.awaitTermination();
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
 }
@@ -78,8 +78,9 @@ public class MainTest {
 //                String result=base + String.valueOf(num) ;
 //
 //                essai = Instance.fromFile(Paths.get(result));
-                Schedule greedyschedule=taboosolver.solve(essai,1000000).schedule.get();
-//                System.out.println("Numbers of Neighbors Explored:" +bestsolver.getNeighborsexplored());
+                Result result=taboosolver.solve(essai,1000000);
+                Schedule greedyschedule=result.schedule.get();
+//                System.out.println("METRICS: " + result.metrics);
                 System.out.println("test solver");
                 System.out.println("VALID: " + greedyschedule.isValid());
 //                System.out.println(num);
@@ -16,11 +16,25 @@ public class Result {
     /** Reason why the solver exited with this solution. */
     public final ExitCause cause;
 
-    /** Creates a new Result object with the corresponding fields. */
+    /** New best solutions found by the solver during its search. Empty if the solver does not record them. */
+    public final Trace trace;
+
+    /** Work done by the solver to find this result. */
+    public final SolverMetrics metrics;
+
+    /** Creates a new Result object with the corresponding fields, an empty trace and empty metrics. */
     public Result(Instance instance, Optional<Schedule> schedule, ExitCause cause) {
+        this(instance, schedule, cause, new Trace(), new SolverMetrics());
+    }
+
+    /** Creates a new Result object with the corresponding fields. This marks the end of the search in the metrics. */
+    public Result(Instance instance, Optional<Schedule> schedule, ExitCause cause, Trace trace, SolverMetrics metrics) {
         this.instance = instance;
         this.schedule = schedule;
         this.cause = cause;
+        this.trace = trace;
+        this.metrics = metrics;
+        metrics.stop();
     }
 
     /** Documents the reason why a solver returned the solution. */
@@ -30,6 +44,8 @@ public class Result {
         /** The solution has been proved optimal and thus can no longer be improved. */
         ProvedOptimal,
         /** The solver was not able to further improve the solution (e.g. blocked in a local minima. */
-        Blocked
+        Blocked,
+        /** The solver was stopped early through its cancellation token. */
+        Cancelled
     }
 }
@@ -0,0 +1,152 @@
+package jobshop;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/** Writes machine-readable results (CSV or JSON Lines) from a background thread.
+ *
+ * Records are formatted by the caller and put in an unbounded queue, so that writing to disk never blocks the
+ * thread that runs the solvers. Each record is either:
+ *  - a "result": the outcome of a solver on an instance,
+ *  - a "trace": a new best solution found by a solver during its search (see <code>Trace</code>).
+ */
+public final class ResultWriter implements AutoCloseable {
+
+    /** Supported output formats. */
+    public enum Format {
+        CSV, JSONL
+    }
+
+    /** Header line of the CSV format. */
+    static final String CSV_HEADER = "type,instance,solver,time,iteration,makespan,best,ecart,cause";
+
+    // marks the end of the queue
+    private static final String END = new String("END");
+
+    private final Format format;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile IOException failure = null;
+
+    /** Creates a new writer, and starts its background thread. The writer is closed together with this object. */
+    public ResultWriter(Writer out, Format format) {
+        this.format = format;
+        this.thread = new Thread(() -> drain(new BufferedWriter(out)), "result-writer");
+        this.thread.setDaemon(true);
+        if(format == Format.CSV)
+            queue.add(CSV_HEADER);
+        this.thread.start();
+    }
+
+    /** Background loop: writes the lines of the queue until the END marker. */
+    private void drain(BufferedWriter out) {
+        try(out) {
+            while(true) {
+                String line = queue.take();
+                if(line == END)
+                    break;
+                out.write(line);
+                out.newLine();
+                // only flush when the solvers are not producing records fast enough to keep us busy
+                if(queue.isEmpty())
+                    out.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Records the result of a solver on an instance.
+     *
+     * @param runtime Time taken by the solver, in milliseconds.
+     */
+    public void result(String instance, String solver, long runtime, int makespan, int best, Result.ExitCause cause) {
+        float dist = 100f * (makespan - best) / (float) best;
+        if(format == Format.CSV) {
+            queue.add(String.format(Locale.ROOT, "result,%s,%s,%d,,%d,%d,%.2f,%s",
+                    csv(instance), csv(solver), runtime, makespan, best, dist, cause));
+        } else {
+            queue.add(String.format(Locale.ROOT,
+                    "{\"type\":\"result\",\"instance\":\"%s\",\"solver\":\"%s\",\"time\":%d,\"makespan\":%d,\"best\":%d,\"ecart\":%.2f,\"cause\":\"%s\"}",
+                    json(instance), json(solver), runtime, makespan, best, dist, cause));
+        }
+    }
+
+    /** Records all points of the improvement trace of a solver on an instance. */
+    public void trace(String instance, String solver, Trace trace) {
+        for(Trace.Point p : trace.points()) {
+            if(format == Format.CSV) {
+                queue.add(String.format(Locale.ROOT, "trace,%s,%s,%d,%d,%d,,,",
+                        csv(instance), csv(solver), p.time, p.iteration, p.makespan));
+            } else {
+                queue.add(String.format(Locale.ROOT,
+                        "{\"type\":\"trace\",\"instance\":\"%s\",\"solver\":\"%s\",\"time\":%d,\"iteration\":%d,\"makespan\":%d}",
+                        json(instance), json(solver), p.time, p.iteration, p.makespan));
+            }
+        }
+    }
+
+    /** Quotes a CSV field if it contains commas or quotes (e.g. the name of a solver pipeline). */
+    static String csv(String s) {
+        if(s.indexOf(',') < 0 && s.indexOf('"') < 0)
+            return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    /** Splits a CSV line into its fields, undoing the quoting of <code>csv</code>. */
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c != '"') field.append(c);
+                else if(i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                else quoted = false;
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Escapes a string to be embedded in a JSON string literal. */
+    static String json(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for(char c : s.toCharArray()) {
+            if(c == '"' || c == '\\') sb.append('\\').append(c);
+            else if(c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** Waits for all pending records to be written and closes the underlying writer. */
+    @Override
+    public void close() {
+        queue.add(END);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(failure != null)
+            throw new UncheckedIOException("Could not write results", failure);
+    }
+}
@@ -0,0 +1,126 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/** An on-disk store of the best known ResourceOrder of each instance, used to warm start local searches.
+ *
+ * The store is a directory with one file per instance, named after the instance with the ".ro" extension.
+ * Each file is made of a header followed by the machine orders packed by <code>ResourceOrder.writeTo</code>:
+ * <pre>
+ *   int magic     ("JSRO")
+ *   int version
+ *   int numJobs
+ *   int numMachines
+ *   int makespan
+ *   ... packed machine orders
+ * </pre>
+ * Files are memory-mapped for reading. They are replaced atomically: a new solution is first written to a temporary
+ * file that is then moved over the previous one, so that readers never see a partially written solution.
+ */
+public final class SolutionStore {
+
+    static final int MAGIC = 0x4A53524F; // "JSRO"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    /** Directory containing the solution files. */
+    public final Path directory;
+
+    /** Opens the store in the given directory, creating the directory if needed. */
+    public SolutionStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    private Path fileOf(String instanceName) {
+        return directory.resolve(instanceName + ".ro");
+    }
+
+    /** Maps the file of the instance in memory and checks its header.
+     * Returns an empty optional if there is no valid file for this instance. */
+    private Optional<ByteBuffer> map(String instanceName) {
+        try(FileChannel channel = FileChannel.open(fileOf(instanceName), StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_SIZE)
+                return Optional.empty();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                return Optional.empty();
+            return Optional.of(buffer);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Makespan of the stored solution for this instance, if any. */
+    public OptionalInt makespan(String instanceName) {
+        return map(instanceName)
+                .map(buffer -> OptionalInt.of(buffer.getInt(16)))
+                .orElse(OptionalInt.empty());
+    }
+
+    /** Loads the stored solution of this instance.
+     *
+     * @return An empty optional if no solution is stored for an instance with this name and size.
+     */
+    public Optional<ResourceOrder> load(Instance instance) {
+        Optional<ByteBuffer> mapped = map(instance.name);
+        if(mapped.isEmpty())
+            return Optional.empty();
+        ByteBuffer buffer = mapped.get();
+        if(buffer.getInt(8) != instance.numJobs || buffer.getInt(12) != instance.numMachines)
+            return Optional.empty();
+        buffer.position(HEADER_SIZE);
+        try {
+            return Optional.of(ResourceOrder.readFrom(instance, buffer));
+        } catch (IllegalArgumentException e) {
+            // corrupted file, ignore it
+            return Optional.empty();
+        }
+    }
+
+    /** Stores the solution if it is better than the one currently stored for its instance.
+     *
+     * @param order A complete resource order.
+     * @param makespan Makespan of the solution.
+     * @return True if the solution was stored.
+     */
+    public synchronized boolean update(ResourceOrder order, int makespan) throws IOException {
+        Instance instance = order.instance;
+        OptionalInt stored = makespan(instance.name);
+        if(stored.isPresent() && stored.getAsInt() <= makespan)
+            return false;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + ResourceOrder.packedSize(instance));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(instance.numJobs).putInt(instance.numMachines).putInt(makespan);
+        order.writeTo(buffer);
+        buffer.flip();
+
+        Path tmp = Files.createTempFile(directory, instance.name, ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(true);
+            }
+            Files.move(tmp, fileOf(instance.name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return true;
+    }
+}
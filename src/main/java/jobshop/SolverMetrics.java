@@ -0,0 +1,103 @@
+package jobshop;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters describing the work done by a solver during a single call to <code>solve</code>.
+ *
+ * Counters are <code>LongAdder</code>s: incrementing them is cheap even when they are shared by several threads
+ * working on the same search.
+ */
+public final class SolverMetrics {
+
+    final LongAdder neighborsGenerated = new LongAdder();
+    final LongAdder neighborsEvaluated = new LongAdder();
+    final LongAdder decodes = new LongAdder();
+    final LongAdder infeasible = new LongAdder();
+    final LongAdder iterations = new LongAdder();
+
+    // time at which the search started, as given by System.nanoTime()
+    private final long start;
+    // time at which the best solution was found, in nanoseconds since start
+    private volatile long timeToBest = 0;
+    // duration of the search in nanoseconds, -1 while the search is still running
+    private volatile long duration = -1;
+
+    /** Creates new metrics for a search starting now. */
+    public SolverMetrics() {
+        this.start = System.nanoTime();
+    }
+
+    /** Records that <code>count</code> neighbors (or candidate solutions) have been generated. */
+    public void generated(int count) {
+        neighborsGenerated.add(count);
+    }
+
+    /** Records that the makespan of a neighbor (or candidate solution) has been computed. */
+    public void evaluated() {
+        neighborsEvaluated.increment();
+    }
+
+    /** Records a conversion of an encoding into a schedule with <code>toSchedule()</code>. */
+    public void decoded() {
+        decodes.increment();
+    }
+
+    /** Records that a neighbor (or candidate solution) had no valid schedule. */
+    public void infeasible() {
+        infeasible.increment();
+    }
+
+    /** Records the end of an iteration of the solver. Its meaning depends on the solver. */
+    public void iteration() {
+        iterations.increment();
+    }
+
+    /** Records that a new best solution has just been found. */
+    public void improved() {
+        timeToBest = System.nanoTime() - start;
+    }
+
+    /** Records the end of the search. Called when creating the Result of the solver. */
+    void stop() {
+        if(duration < 0)
+            duration = System.nanoTime() - start;
+    }
+
+    public long neighborsGenerated() {
+        return neighborsGenerated.sum();
+    }
+
+    public long neighborsEvaluated() {
+        return neighborsEvaluated.sum();
+    }
+
+    public long decodes() {
+        return decodes.sum();
+    }
+
+    public long infeasibleNeighbors() {
+        return infeasible.sum();
+    }
+
+    public long iterations() {
+        return iterations.sum();
+    }
+
+    /** Time at which the best solution was found, in milliseconds since the start of the search. */
+    public long timeToBest() {
+        return timeToBest / 1_000_000;
+    }
+
+    /** Number of neighbors evaluated per second, over the whole search. */
+    public double evaluationsPerSecond() {
+        long d = duration < 0 ? System.nanoTime() - start : duration;
+        return d == 0 ? 0 : neighborsEvaluated() * 1e9 / d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("iterations=%d generated=%d evaluated=%d decodes=%d infeasible=%d time-to-best=%dms eval/s=%.0f",
+                iterations(), neighborsGenerated(), neighborsEvaluated(), decodes(), infeasibleNeighbors(), timeToBest(),
+                evaluationsPerSecond());
+    }
+}
@@ -0,0 +1,63 @@
+package jobshop;
+
+import jobshop.jfr.IncumbentEvent;
+import jobshop.jfr.Recordings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Improvement trace of a solver: records the time and iteration at which each new best solution was found.
+ *
+ * Solvers create a trace at the start of their search, call <code>improved()</code> each time they find a new best
+ * solution and attach the trace to their Result.
+ */
+public final class Trace {
+
+    /** A new best solution found during the search. */
+    public static final class Point {
+        /** Time at which the solution was found, in milliseconds since the start of the search. */
+        public final long time;
+        /** Iteration of the solver at which the solution was found. Its meaning depends on the solver. */
+        public final long iteration;
+        /** Makespan of the new best solution. */
+        public final int makespan;
+
+        Point(long time, long iteration, int makespan) {
+            this.time = time;
+            this.iteration = iteration;
+            this.makespan = makespan;
+        }
+    }
+
+    // time at which the search started, as given by System.currentTimeMillis()
+    private final long start;
+
+    private final List<Point> points = new ArrayList<>();
+
+    /** Creates a new trace for a search starting now. */
+    public Trace() {
+        this.start = System.currentTimeMillis();
+    }
+
+    /** Records a new solution. It is ignored if it does not improve on the last recorded one. */
+    public void improved(long iteration, int makespan) {
+        if(!points.isEmpty() && points.get(points.size()-1).makespan <= makespan)
+            return;
+        points.add(new Point(System.currentTimeMillis() - start, iteration, makespan));
+
+        if(!Recordings.enabled())
+            return;
+        IncumbentEvent event = new IncumbentEvent();
+        if(event.shouldCommit()) {
+            event.iteration = iteration;
+            event.makespan = makespan;
+            event.commit();
+        }
+    }
+
+    /** All new best solutions, in the order they were found. */
+    public List<Point> points() {
+        return Collections.unmodifiableList(points);
+    }
+}
@@ -0,0 +1,355 @@
+package jobshop;
+
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleValidator;
+import jobshop.solvers.Solver;
+import jobshop.solvers.TunedSolver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the parameters of solvers by racing candidate configurations (F-race).
+ *
+ * Training instances are grouped by size class (see TunedSolver.sizeClass) and a race is run for each class. At each
+ * step of a race, all surviving candidates solve the same block (an instance of the class and a seed), in parallel.
+ * Once enough blocks have been run, a Friedman test on the ranks of the candidates in each block tells whether some
+ * candidates are different, in which case the candidates whose rank sum is significantly worse than the one of the
+ * best candidate are eliminated (Conover's post-hoc test). A race ends when a single candidate is left or when its
+ * budget of runs is spent, and its winner is the survivor with the best mean rank.
+ *
+ * The winners are written in a configuration file that is used by the solver named <code>tuned</code>.
+ */
+public final class Tuning {
+
+    private Tuning() {}
+
+    /** Expands the alternatives in braces of a candidate: <code>taboo(tenure={7,10})</code> gives two candidates. */
+    static List<String> expand(String candidate) {
+        int open = candidate.indexOf('{');
+        if(open < 0)
+            return List.of(candidate);
+        int close = candidate.indexOf('}', open);
+        if(close < 0)
+            throw new IllegalArgumentException("Unbalanced braces in candidate " + candidate);
+        List<String> expanded = new ArrayList<>();
+        for(String alternative : candidate.substring(open + 1, close).split(",", -1)) {
+            expanded.addAll(expand(candidate.substring(0, open) + alternative.strip() + candidate.substring(close + 1)));
+        }
+        return expanded;
+    }
+
+    /** Ranks of the values, from 1 for the smallest one. Equal values receive the mean of their ranks. */
+    static double[] ranks(int[] values) {
+        Integer[] order = new Integer[values.length];
+        for(int i = 0; i < values.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(values[a], values[b]));
+        double[] ranks = new double[values.length];
+        int i = 0;
+        while(i < values.length) {
+            int j = i;
+            while(j + 1 < values.length && values[order[j + 1]] == values[order[i]])
+                j++;
+            for(int k = i; k <= j; k++)
+                ranks[order[k]] = (i + j) / 2.0 + 1;
+            i = j + 1;
+        }
+        return ranks;
+    }
+
+    /** Quantile of the standard normal distribution (Abramowitz and Stegun 26.2.23, error below 4.5e-4). */
+    static double normalQuantile(double p) {
+        if(p < 0.5)
+            return -normalQuantile(1 - p);
+        double t = Math.sqrt(-2 * Math.log(1 - p));
+        return t - (2.515517 + 0.802853 * t + 0.010328 * t * t) / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    }
+
+    /** Quantile of the chi-squared distribution (Wilson-Hilferty approximation). */
+    static double chiSquaredQuantile(double p, int df) {
+        double z = normalQuantile(p);
+        double a = 2.0 / (9 * df);
+        return df * Math.pow(1 - a + z * Math.sqrt(a), 3);
+    }
+
+    /** Quantile of Student's t distribution (Cornish-Fisher expansion, Abramowitz and Stegun 26.7.5). */
+    static double studentQuantile(double p, int df) {
+        double z = normalQuantile(p);
+        double z3 = z * z * z, z5 = z3 * z * z, z7 = z5 * z * z;
+        return z + (z3 + z) / (4.0 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384.0 * df * df * df);
+    }
+
+    /**
+     * Friedman test followed by Conover's post-hoc comparisons with the best candidate.
+     *
+     * @param results results[b][c] is the makespan of candidate c on block b (lower is better).
+     * @param alpha Significance level of the tests.
+     * @return For each candidate, true if it is significantly worse than the best one. All false if the Friedman
+     *         test does not reject the hypothesis that all candidates are equivalent.
+     */
+    static boolean[] inferior(int[][] results, double alpha) {
+        int b = results.length;
+        int k = results[0].length;
+        double[] rankSums = new double[k];
+        double sumOfSquares = 0;
+        for(int[] block : results) {
+            double[] r = ranks(block);
+            for(int c = 0; c < k; c++) {
+                rankSums[c] += r[c];
+                sumOfSquares += r[c] * r[c];
+            }
+        }
+        boolean[] inferior = new boolean[k];
+        double c = b * k * (k + 1) * (k + 1) / 4.0;
+        // all candidates tied on all blocks
+        if(b < 2 || k < 2 || sumOfSquares - c <= 1e-9)
+            return inferior;
+        double deviation = 0;
+        for(double r : rankSums)
+            deviation += (r - b * (k + 1) / 2.0) * (r - b * (k + 1) / 2.0);
+        double t = (k - 1) * deviation / (sumOfSquares - c);
+        if(t <= chiSquaredQuantile(1 - alpha, k - 1))
+            return inferior;
+
+        double best = Double.POSITIVE_INFINITY;
+        for(double r : rankSums)
+            best = Math.min(best, r);
+        int df = (b - 1) * (k - 1);
+        double critical = studentQuantile(1 - alpha / 2, df)
+                * Math.sqrt(Math.max(0, 2 * b * (1 - t / (b * (k - 1))) * (sumOfSquares - c) / df));
+        for(int i = 0; i < k; i++)
+            inferior[i] = rankSums[i] - best > critical;
+        return inferior;
+    }
+
+    /** Outcome of the race on a size class. */
+    static final class Race {
+        final String winner;
+        final List<String> survivors;
+        final int blocks;
+        final int runs;
+
+        Race(String winner, List<String> survivors, int blocks, int runs) {
+            this.winner = winner;
+            this.survivors = survivors;
+            this.blocks = blocks;
+            this.runs = runs;
+        }
+    }
+
+    /**
+     * Races the candidates on the instances.
+     *
+     * @param budget Maximal number of solver runs.
+     * @param firstTest Number of blocks run before the first elimination test.
+     */
+    static Race race(List<String> candidates, List<Instance> instances, long timeoutMs, int budget, int firstTest,
+                     double alpha, long seed, ExecutorService executor) throws InterruptedException, ExecutionException {
+        List<Instance> order = new ArrayList<>(instances);
+        Collections.shuffle(order, new Random(seed));
+        List<String> survivors = new ArrayList<>(candidates);
+        // makespans of each candidate on each block, eliminated candidates included
+        Map<String, List<Integer>> results = new LinkedHashMap<>();
+        candidates.forEach(candidate -> results.put(candidate, new ArrayList<>()));
+        int blocks = 0;
+        int runs = 0;
+        while(survivors.size() > 1 && runs + survivors.size() <= budget) {
+            // blocks go through the instances and then start over with new seeds
+            Instance instance = order.get(blocks % order.size());
+            long blockSeed = seed + blocks / order.size();
+            List<Future<Integer>> futures = new ArrayList<>();
+            for(String candidate : survivors) {
+                futures.add(executor.submit(() -> run(candidate, instance, blockSeed, timeoutMs)));
+            }
+            for(int i = 0; i < survivors.size(); i++) {
+                results.get(survivors.get(i)).add(futures.get(i).get());
+            }
+            blocks++;
+            runs += survivors.size();
+
+            if(blocks >= firstTest) {
+                boolean[] inferior = inferior(matrix(results, survivors, blocks), alpha);
+                List<String> next = new ArrayList<>();
+                for(int i = 0; i < survivors.size(); i++) {
+                    if(!inferior[i])
+                        next.add(survivors.get(i));
+                }
+                survivors = next;
+            }
+        }
+
+        // winner: the survivor with the best rank sum, which is the first one when no block was run
+        int winner = 0;
+        if(blocks > 0) {
+            double[] rankSums = new double[survivors.size()];
+            for(int[] block : matrix(results, survivors, blocks)) {
+                double[] r = ranks(block);
+                for(int i = 0; i < r.length; i++)
+                    rankSums[i] += r[i];
+            }
+            for(int i = 1; i < survivors.size(); i++) {
+                if(rankSums[i] < rankSums[winner])
+                    winner = i;
+            }
+        }
+        return new Race(survivors.get(winner), survivors, blocks, runs);
+    }
+
+    /** Results of the given candidates on all blocks: matrix[block][candidate]. */
+    private static int[][] matrix(Map<String, List<Integer>> results, List<String> candidates, int blocks) {
+        int[][] matrix = new int[blocks][candidates.size()];
+        for(int c = 0; c < candidates.size(); c++) {
+            List<Integer> makespans = results.get(candidates.get(c));
+            for(int b = 0; b < blocks; b++)
+                matrix[b][c] = makespans.get(b);
+        }
+        return matrix;
+    }
+
+    /** Runs a candidate on an instance and returns the makespan of its solution. */
+    private static int run(String candidate, Instance instance, long seed, long timeoutMs) {
+        Result result = Solver.getSolver(candidate, null, seed).solve(instance, System.currentTimeMillis() + timeoutMs);
+        if(result.schedule.isEmpty())
+            throw new IllegalStateException(candidate + " returned no schedule on " + instance.name);
+        Schedule schedule = result.schedule.get();
+        ScheduleValidator.check(schedule).ifPresent(violation -> {
+            throw new IllegalStateException(candidate + " returned an invalid schedule on " + instance.name +
+                    ": " + violation);
+        });
+        return schedule.makespan();
+    }
+
+    /** Writes the configuration read by TunedSolver. */
+    static void writeConfiguration(Path file, Map<String, String> solvers) throws IOException {
+        try(BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("# solver of each size class (numJobs x numMachines), written by jobshop.Tuning");
+            out.newLine();
+            for(Map.Entry<String, String> e : solvers.entrySet()) {
+                out.write(e.getKey() + "=" + e.getValue());
+                out.newLine();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-tune").build()
+                .defaultHelp(true)
+                .description("Races candidate solver configurations on training instances and saves the best " +
+                        "configuration of each size class.");
+        parser.addArgument("--candidates")
+                .nargs("+")
+                .required(true)
+                .help("Candidate solvers. Alternatives in braces are expanded: " +
+                        "\"estlrpt>taboo(tenure={7,10,13})\" gives three candidates.");
+        parser.addArgument("--instance")
+                .nargs("+")
+                .required(true)
+                .help("Training instance(s) (or prefix of their names).");
+        parser.addArgument("-t", "--timeout")
+                .setDefault(1000L)
+                .type(Long.class)
+                .help("Solver timeout of each run, in milliseconds.");
+        parser.addArgument("--threads")
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .type(Integer.class)
+                .help("Number of runs executed in parallel.");
+        parser.addArgument("--budget")
+                .setDefault(200)
+                .type(Integer.class)
+                .help("Maximal number of runs of the race of each size class.");
+        parser.addArgument("--first-test")
+                .setDefault(5)
+                .type(Integer.class)
+                .help("Number of blocks (instance and seed) run before candidates can be eliminated.");
+        parser.addArgument("--alpha")
+                .setDefault(0.05)
+                .type(Double.class)
+                .help("Significance level of the elimination tests.");
+        parser.addArgument("--seed")
+                .setDefault(0L)
+                .type(Long.class)
+                .help("Seed of the order of the instances and of the solvers.");
+        parser.addArgument("-o", "--output")
+                .setDefault(TunedSolver.DEFAULT_FILE)
+                .help("Configuration file to write, used by the solver \"tuned\".");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for(String candidate : ns.<String>getList("candidates")) {
+            for(String expanded : expand(candidate)) {
+                Solver.getSolver(expanded); // fail early on invalid candidates
+                if(!candidates.contains(expanded))
+                    candidates.add(expanded);
+            }
+        }
+        // training instances grouped by size class, smallest classes first
+        Map<String, List<Instance>> classes = new TreeMap<>((a, b) -> {
+            String[] x = a.split("x"), y = b.split("x");
+            int c = Integer.compare(Integer.parseInt(x[0]) * Integer.parseInt(x[1]), Integer.parseInt(y[0]) * Integer.parseInt(y[1]));
+            return c != 0 ? c : a.compareTo(b);
+        });
+        try {
+            for(String prefix : ns.<String>getList("instance")) {
+                List<String> matches = BestKnownResults.instancesMatching(prefix);
+                if(matches.isEmpty()) {
+                    System.err.println("ERROR: instance prefix \"" + prefix + "\" does not match any instance.");
+                    System.exit(1);
+                }
+                for(String name : matches) {
+                    Instance instance = Instance.fromFile(Paths.get("instances/", name));
+                    classes.computeIfAbsent(TunedSolver.sizeClass(instance), size -> new ArrayList<>()).add(instance);
+                }
+            }
+
+            System.out.println(candidates.size() + " candidates, " + classes.size() + " size classes");
+            Map<String, String> configuration = new LinkedHashMap<>();
+            ExecutorService executor = Executors.newFixedThreadPool(ns.getInt("threads"));
+            try {
+                for(Map.Entry<String, List<Instance>> e : classes.entrySet()) {
+                    Race race = race(candidates, e.getValue(), ns.getLong("timeout"), ns.getInt("budget"),
+                            ns.getInt("first_test"), ns.getDouble("alpha"), ns.getLong("seed"), executor);
+                    configuration.put(e.getKey(), race.winner);
+                    System.out.printf(Locale.ROOT, "%-6s %3d instances %4d blocks %5d runs %3d survivors  best: %s%n",
+                            e.getKey(), e.getValue().size(), race.blocks, race.runs, race.survivors.size(), race.winner);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            Path output = Paths.get(ns.getString("output"));
+            writeConfiguration(output, configuration);
+            System.out.println("Wrote " + output);
+        } catch (IOException | ExecutionException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
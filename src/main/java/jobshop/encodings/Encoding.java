@@ -1,6 +1,8 @@
 package jobshop.encodings;
 
 import jobshop.Instance;
+import jobshop.jfr.DecodeEvent;
+import jobshop.jfr.Recordings;
 
 import java.util.Optional;
 
@@ -10,6 +12,9 @@ import java.util.Optional;
  */
 public abstract class Encoding {
 
+    /** Value returned by <code>decodeInto</code> for a solution that cannot be converted into a schedule. */
+    public static final int INFEASIBLE = -1;
+
     /** Problem instance of which this is the solution. */
     public final Instance instance;
 
@@ -23,5 +28,43 @@ public abstract class Encoding {
      * @return A empty optional if the solution is not valid. Otherwise the optional will contain a valid schedule of
      *         the solution.
      */
-    public abstract Optional<Schedule> toSchedule();
+    public Optional<Schedule> toSchedule() {
+        Schedule schedule = new Schedule(instance);
+        if(decodeInto(schedule) == INFEASIBLE)
+            return Optional.empty();
+        return Optional.of(schedule);
+    }
+
+    /** Converts this solution into the given schedule, overwriting all its start times.
+     *
+     * Unlike <code>toSchedule()</code>, this allocates nothing once the schedule has been used for a first decode:
+     * a search can evaluate all its neighbors with a single schedule.
+     *
+     * @param schedule Schedule of the same instance, owned by the caller, in which to write the start times.
+     * @return The makespan of the solution, or INFEASIBLE if the solution is not valid (the content of the schedule
+     *         is then unspecified).
+     */
+    public final int decodeInto(Schedule schedule) {
+        if(schedule.instance != instance)
+            throw new IllegalArgumentException("Schedule of instance " + schedule.instance.name +
+                    " cannot hold a solution of instance " + instance.name);
+        if(!Recordings.enabled()) {
+            int makespan = decode(schedule);
+            schedule.decoded(makespan);
+            return makespan;
+        }
+        DecodeEvent event = new DecodeEvent();
+        event.begin();
+        int makespan = decode(schedule);
+        schedule.decoded(makespan);
+        if(event.shouldCommit()) {
+            event.encoding = getClass().getSimpleName();
+            event.feasible = makespan != INFEASIBLE;
+            event.commit();
+        }
+        return makespan;
+    }
+
+    /** Implementation of <code>decodeInto</code>, the schedule is of the same instance as this solution. */
+    abstract int decode(Schedule schedule);
 }
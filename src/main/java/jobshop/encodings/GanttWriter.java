@@ -0,0 +1,168 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/** Renders the Gantt chart of a schedule directly to a Writer, in ASCII art or SVG.
+ *
+ * The chart is produced incrementally, task by task, so that rendering a large schedule never requires holding the
+ * whole document in memory. Tasks on the critical path are looked up in a bitset indexed by job * numTasks + task.
+ */
+public final class GanttWriter {
+
+    /** Height in pixels of the line of a job in SVG charts. */
+    static final int SVG_ROW_HEIGHT = 12;
+    /** Width in pixels of the time axis of SVG charts. */
+    static final int SVG_WIDTH = 1600;
+    /** Width in pixels of the margin holding the job labels in SVG charts. */
+    static final int SVG_LABEL_WIDTH = 60;
+
+    private GanttWriter() {}
+
+    /** Returns the set of tasks on the critical path of the schedule, as indices job * numTasks + task. */
+    static BitSet criticalTasks(Schedule schedule) {
+        BitSet critical = new BitSet(schedule.instance.numJobs * schedule.instance.numTasks);
+        for(Task t : schedule.criticalPath()) {
+            critical.set(t.job * schedule.instance.numTasks + t.task);
+        }
+        return critical;
+    }
+
+    /** Writes the same Gantt chart as <code>Schedule.asciiGantt()</code>.
+     *
+     * Each line of the Gantt chart, contains the tasks of a particular job. Each character in the output represents a
+     * fixed number of time units. Tasks on the critical path are filled in with stars.
+     */
+    public static void ascii(Schedule schedule, Writer out) throws IOException {
+        Instance instance = schedule.instance;
+        BitSet critical = criticalTasks(schedule);
+        int minTaskDur = Integer.MAX_VALUE;
+        for(int job = 0; job < instance.numJobs; job++)
+            for(int task = 0; task < instance.numTasks; task++)
+                minTaskDur = Math.min(minTaskDur, instance.duration(job, task));
+        // time units by character
+        int charsPerTimeUnit = minTaskDur >= 5 ? 1 : (5 / Math.max(minTaskDur, 1)) +1;
+
+        out.write("\nGantt Chart\n");
+        for(int job = 0; job < instance.numJobs; job++) {
+            out.write(String.format("Job %2d: ", job));
+            int cursor = 0;
+            for(int task = 0; task < instance.numTasks; task++) {
+                int st = schedule.startTime(job, task);
+                // add spaces until the start of our task
+                repeat(out, ' ', charsPerTimeUnit * (st - cursor));
+                writeTask(out, instance, job, task, charsPerTimeUnit, critical.get(job * instance.numTasks + task));
+                cursor = schedule.endTime(job, task);
+            }
+            out.write('\n');
+        }
+    }
+
+    /** Writes the characters representing a task in an ASCII Gantt chart. Its length is duration * charsPerTimeUnit. */
+    private static void writeTask(Writer out, Instance instance, int job, int task, int charsPerTimeUnit, boolean isCritical)
+            throws IOException {
+        char fill = isCritical ? '*' : '-';
+        int machine = instance.machine(job, task);
+        int stringLength = instance.duration(job, task) * charsPerTimeUnit;
+        int charsForMachine = machine < 10 ? 1 : 2;
+        int numSpaces = stringLength - 2 - charsForMachine; // we use 2 chars for '[' and '[' + 1 or 2 for the machine number
+        int startSpaces = numSpaces / 2;
+        int endSpaces = numSpaces - startSpaces;
+        out.write('[');
+        repeat(out, fill, startSpaces - 1);
+        out.write(' ');
+        out.write(Integer.toString(machine));
+        out.write(' ');
+        repeat(out, fill, endSpaces - 1);
+        out.write(']');
+    }
+
+    private static final char[] SPACES = new char[256];
+    private static final char[] STARS = new char[256];
+    private static final char[] DASHES = new char[256];
+    static {
+        Arrays.fill(SPACES, ' ');
+        Arrays.fill(STARS, '*');
+        Arrays.fill(DASHES, '-');
+    }
+
+    /** Writes a character n times (nothing if n is negative). */
+    private static void repeat(Writer out, char c, int n) throws IOException {
+        char[] chars = c == ' ' ? SPACES : c == '*' ? STARS : DASHES;
+        while(n > 0) {
+            int len = Math.min(n, chars.length);
+            out.write(chars, 0, len);
+            n -= len;
+        }
+    }
+
+    /** Escapes the characters of a text that have a meaning in XML and HTML, such as a name given by a client. */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': escaped.append("&amp;"); break;
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '"': escaped.append("&quot;"); break;
+                case '\'': escaped.append("&#39;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Writes the Gantt chart as a standalone SVG document.
+     *
+     * Each job is a line and each task a rectangle colored after its machine. Tasks on the critical path have a thick
+     * black border. Hovering over a task shows its details.
+     */
+    public static void svg(Schedule schedule, Writer out) throws IOException {
+        Instance instance = schedule.instance;
+        BitSet critical = criticalTasks(schedule);
+        int makespan = schedule.makespan();
+        double scale = makespan == 0 ? 1 : (double) SVG_WIDTH / makespan;
+        int height = instance.numJobs * SVG_ROW_HEIGHT;
+
+        out.write(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" font-family=\"monospace\" font-size=\"%d\">\n",
+                SVG_LABEL_WIDTH + SVG_WIDTH, height + SVG_ROW_HEIGHT, SVG_ROW_HEIGHT - 2));
+        out.write(String.format(Locale.ROOT, "<title>%s: makespan %d</title>\n", escape(instance.name), makespan));
+        for(int job = 0; job < instance.numJobs; job++) {
+            int y = job * SVG_ROW_HEIGHT;
+            out.write(String.format(Locale.ROOT, "<text x=\"0\" y=\"%d\">Job %d</text>\n", y + SVG_ROW_HEIGHT - 2, job));
+            for(int task = 0; task < instance.numTasks; task++) {
+                int machine = instance.machine(job, task);
+                int start = schedule.startTime(job, task);
+                int end = schedule.endTime(job, task);
+                boolean isCritical = critical.get(job * instance.numTasks + task);
+                out.write(String.format(Locale.ROOT,
+                        "<rect x=\"%.2f\" y=\"%d\" width=\"%.2f\" height=\"%d\" fill=\"hsl(%d,70%%,60%%)\"%s>" +
+                        "<title>(%d, %d) machine %d [%d, %d)</title></rect>\n",
+                        SVG_LABEL_WIDTH + start * scale, y + 1, (end - start) * scale, SVG_ROW_HEIGHT - 2,
+                        machine * 360 / instance.numMachines,
+                        isCritical ? " stroke=\"black\" stroke-width=\"2\"" : "",
+                        job, task, machine, start, end));
+            }
+        }
+        out.write(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">0</text>\n", SVG_LABEL_WIDTH, height + SVG_ROW_HEIGHT - 2));
+        out.write(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%d</text>\n",
+                SVG_LABEL_WIDTH + SVG_WIDTH, height + SVG_ROW_HEIGHT - 2, makespan));
+        out.write("</svg>\n");
+    }
+
+    /** Writes the Gantt chart as an HTML page embedding the SVG chart of <code>svg()</code>. */
+    public static void html(Schedule schedule, Writer out) throws IOException {
+        out.write("<!DOCTYPE html>\n<html>\n<head><meta charset=\"utf-8\"><title>");
+        out.write(escape(schedule.instance.name));
+        out.write("</title></head>\n<body>\n");
+        svg(schedule, out);
+        out.write("</body>\n</html>\n");
+    }
+}
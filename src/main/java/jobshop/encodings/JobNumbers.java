@@ -5,7 +5,6 @@ import jobshop.Instance;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.IntStream;
 
 /** Encoding of the solution of a jobshop problem by job numbers. */
@@ -57,31 +56,43 @@ public final class JobNumbers extends Encoding {
         this.jobs[nextToSet++] = jobNumber;
     }
 
-    @Override
-    public Optional<Schedule> toSchedule() {
-        // time at which each machine is going to be freed
-        int[] nextFreeTimeResource = new int[instance.numMachines];
-
-        // for each job, the first task that has not yet been scheduled
-        int[] nextTask = new int[instance.numJobs];
+    /** Zobrist hash of the job numbers that have been set so far.
+     *
+     * Unlike <code>ResourceOrder.zobristHash()</code>, the hash is recomputed on each call as <code>jobs</code> is
+     * public and might be modified in place.
+     */
+    public long zobristHash() {
+        long hash = 0;
+        for(int i = 0; i < nextToSet ; i++) {
+            hash ^= Zobrist.key(0, i, jobs[i]);
+        }
+        return hash;
+    }
 
-        // for each task, its start time
-        Schedule schedule = new Schedule(instance);
+    @Override
+    int decode(Schedule schedule) {
+        int[] workspace = schedule.workspace(instance.numMachines + instance.numJobs);
+        // time at which each machine is going to be freed : workspace[0 .. numMachines-1]
+        final int nextFreeTimeResource = 0;
+        // for each job, the first task that has not yet been scheduled : workspace[numMachines .. numMachines+numJobs-1]
+        final int nextTask = instance.numMachines;
 
         // compute the earliest start time for every task of every job
+        int makespan = 0;
         for(int job : jobs) {
-            int task = nextTask[job];
+            int task = workspace[nextTask + job];
             int machine = instance.machine(job, task);
             // earliest start time for this task
             int est = task == 0 ? 0 : schedule.endTime(job, task-1);
-            est = Math.max(est, nextFreeTimeResource[machine]);
+            est = Math.max(est, workspace[nextFreeTimeResource + machine]);
 
             schedule.setStartTime(job, task, est);
-            nextFreeTimeResource[machine] = est + instance.duration(job, task);
-            nextTask[job] = task + 1;
+            int end = est + instance.duration(job, task);
+            workspace[nextFreeTimeResource + machine] = end;
+            workspace[nextTask + job] = task + 1;
+            makespan = Math.max(makespan, end);
         }
-
-        return Optional.of(schedule);
+        return makespan;
     }
 
     @Override
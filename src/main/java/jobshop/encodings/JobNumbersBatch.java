@@ -0,0 +1,172 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+
+/** Evaluates the makespan of many JobNumbers solutions of the same instance at once.
+ *
+ * Solutions are stored in lanes, structure-of-arrays style: element i of all solutions are contiguous in memory,
+ * as are the release times of a machine (or job) in all lanes. All lanes are decoded in lockstep: at step i, the i-th
+ * job number of every solution is scheduled. The decodes of different lanes are independent and interleaved, which
+ * keeps the processor busy while each of them waits for its memory accesses, and only makespans are computed: no
+ * Schedule is built.
+ *
+ * A batch is reused for successive evaluations: it allocates nothing after its construction.
+ *
+ * The lanes are deliberately decoded by a scalar loop rather than with the Vector API (jdk.incubator.vector). Each
+ * step reads the job, machine and duration of a different task in every lane and then reads and writes release
+ * times at lane-dependent indices: with vectors these are gathers and scatters, which most processors execute as
+ * one scalar access per lane (AVX2 has no scatter at all), so little would be gained. The module is also still
+ * incubating: it would have to be added with <code>--add-modules</code> to the compiler and to every JVM running
+ * the solvers, including the island workers started as separate processes.
+ *
+ * Usage:
+ * <pre>
+ *   JobNumbersBatch batch = new JobNumbersBatch(instance, 16);
+ *   while(!batch.isFull())
+ *       batch.add(nextCandidate());
+ *   int[] makespans = batch.evaluate(); // makespans[k] is the makespan of the solution in lane k
+ * </pre>
+ */
+public final class JobNumbersBatch {
+
+    /** Instance of the solutions in the batch. */
+    public final Instance instance;
+
+    // number of lanes, i.e. maximal number of solutions in the batch
+    private final int lanes;
+    // number of job numbers in each solution
+    private final int length;
+    // number of solutions currently in the batch
+    private int size = 0;
+
+    // tasks[i * lanes + k] is the identifier (job * numTasks + task) of the task designated by the i-th job number of
+    // the solution in lane k: job numbers are converted into tasks once, when the solution is added
+    private final int[] tasks;
+    // job, machine and duration of each task, copied from the instance for fast access
+    private final int[] jobOf;
+    private final int[] machineOf;
+    private final int[] durationOf;
+    // for each job, number of its tasks already seen while adding a solution
+    private final int[] seen;
+
+    // decoding state: for each job (resp. machine) and lane, the release time of the job (resp. machine), at index
+    // job * lanes + k (resp. machine * lanes + k)
+    private final int[] jobRelease;
+    private final int[] machineRelease;
+    // makespan of each lane
+    private final int[] makespans;
+
+    /** Creates an empty batch.
+     *
+     * @param instance Instance of the solutions.
+     * @param lanes Maximal number of solutions evaluated at once.
+     */
+    public JobNumbersBatch(Instance instance, int lanes) {
+        if(lanes <= 0)
+            throw new IllegalArgumentException("a batch needs at least one lane");
+        this.instance = instance;
+        this.lanes = lanes;
+        this.length = instance.numJobs * instance.numTasks;
+        this.tasks = new int[length * lanes];
+        this.jobOf = new int[length];
+        this.machineOf = new int[length];
+        this.durationOf = new int[length];
+        for(int job = 0; job < instance.numJobs; job++) {
+            for(int task = 0; task < instance.numTasks; task++) {
+                jobOf[job * instance.numTasks + task] = job;
+                machineOf[job * instance.numTasks + task] = instance.machine(job, task);
+                durationOf[job * instance.numTasks + task] = instance.duration(job, task);
+            }
+        }
+        this.seen = new int[instance.numJobs];
+        this.jobRelease = new int[instance.numJobs * lanes];
+        this.machineRelease = new int[instance.numMachines * lanes];
+        this.makespans = new int[lanes];
+    }
+
+    /** Maximal number of solutions in the batch. */
+    public int lanes() {
+        return lanes;
+    }
+
+    /** Number of solutions currently in the batch. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns true if no more solution can be added to the batch. */
+    public boolean isFull() {
+        return size == lanes;
+    }
+
+    /** Removes all solutions from the batch. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Adds a complete solution to the batch and returns its lane.
+     *
+     * @param solution Job numbers of the solution (e.g. <code>JobNumbers.jobs</code>), which are copied.
+     */
+    public int add(int[] solution) {
+        if(isFull())
+            throw new IllegalStateException("batch is full");
+        if(solution.length != length)
+            throw new IllegalArgumentException("expected " + length + " job numbers but got " + solution.length);
+        Arrays.fill(seen, 0);
+        for(int i = 0; i < length; i++) {
+            int job = solution[i];
+            if(job < 0 || job >= instance.numJobs || seen[job] == instance.numTasks)
+                throw new IllegalArgumentException("invalid job number " + job + " at position " + i);
+            tasks[i * lanes + size] = job * instance.numTasks + seen[job]++;
+        }
+        return size++;
+    }
+
+    /** Adds a complete solution to the batch and returns its lane. */
+    public int add(JobNumbers solution) {
+        return add(solution.jobs);
+    }
+
+    /** Copies the solution of a lane into the given JobNumbers, which must be of the same instance. */
+    public void copyTo(int lane, JobNumbers solution) {
+        for(int i = 0; i < length; i++) {
+            solution.jobs[i] = jobOf[tasks[i * lanes + lane]];
+        }
+        solution.nextToSet = length;
+    }
+
+    /** Computes the makespan of all solutions of the batch.
+     *
+     * @return An array whose first <code>size()</code> elements are the makespans of the solutions of each lane.
+     *         It is owned by the batch and overwritten by the next evaluation.
+     */
+    public int[] evaluate() {
+        final int n = size;
+        Arrays.fill(jobRelease, 0);
+        Arrays.fill(machineRelease, 0);
+        Arrays.fill(makespans, 0);
+
+        for(int i = 0; i < length; i++) {
+            final int row = i * lanes;
+            for(int k = 0; k < n; k++) {
+                int t = tasks[row + k];
+                int jobSlot = jobOf[t] * lanes + k;
+                int machineSlot = machineOf[t] * lanes + k;
+                // earliest start time: after the previous task of the job and the previous task of the machine
+                int end = Math.max(jobRelease[jobSlot], machineRelease[machineSlot]) + durationOf[t];
+                jobRelease[jobSlot] = end;
+                machineRelease[machineSlot] = end;
+            }
+        }
+        // the makespan is the latest end of a job
+        for(int job = 0; job < instance.numJobs; job++) {
+            for(int k = 0; k < n; k++) {
+                makespans[k] = Math.max(makespans[k], jobRelease[job * lanes + k]);
+            }
+        }
+        return makespans;
+    }
+}
@@ -2,9 +2,10 @@ package jobshop.encodings;
 
 import jobshop.Instance;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Optional;
 import java.util.stream.IntStream;
 
 /** Encoding of a solution by the ordering of tasks on each machine. */
@@ -17,6 +18,9 @@ public final class ResourceOrder extends Encoding {
     // for each machine, indicate how many tasks have been initialized
     final int[] nextFreeSlot;
 
+    // Zobrist hash of the current content of tasksByMachine, maintained incrementally on every modification
+    private long zobrist = 0;
+
     /** Creates a new empty resource order. */
     public ResourceOrder(Instance instance)
     {
@@ -50,6 +54,9 @@ public final class ResourceOrder extends Encoding {
 
             // indicate that all tasks have been initialized for machine m
             nextFreeSlot[m] = instance.numJobs;
+            for(int i = 0; i<instance.numJobs ; i++) {
+                zobrist ^= Zobrist.key(m, i, tasksByMachine[m][i].job);
+            }
         }
     }
 
@@ -63,6 +70,7 @@ public final class ResourceOrder extends Encoding {
     /** Adds the given task to the queue of the given machine. */
     public void addTaskToMachine(int machine, Task task) {
         tasksByMachine[machine][nextFreeSlot[machine]] = task;
+        zobrist ^= Zobrist.key(machine, nextFreeSlot[machine], task.job);
         nextFreeSlot[machine] += 1;
     }
 
@@ -86,72 +94,144 @@ public final class ResourceOrder extends Encoding {
         Task tmp = tasksByMachine[machine][indexTask1];
         tasksByMachine[machine][indexTask1] = tasksByMachine[machine][indexTask2];
         tasksByMachine[machine][indexTask2] = tmp;
+
+        // remove both tasks from their old positions and add them to their new ones
+        int job1 = tasksByMachine[machine][indexTask2].job;
+        int job2 = tasksByMachine[machine][indexTask1].job;
+        zobrist ^= Zobrist.key(machine, indexTask1, job1) ^ Zobrist.key(machine, indexTask2, job2)
+                 ^ Zobrist.key(machine, indexTask1, job2) ^ Zobrist.key(machine, indexTask2, job1);
+    }
+
+    /** Zobrist hash of this resource order.
+     *
+     * The hash only depends on the order of the tasks on each machine and is updated in O(1) by
+     * <code>swapTasks</code> and <code>addTaskToMachine</code>. Two equal resource orders always have the same hash.
+     */
+    public long zobristHash() {
+        return zobrist;
     }
 
     @Override
-    public Optional<Schedule> toSchedule() {
-        // indicate for each task that have been scheduled, its start time
-        Schedule schedule = new Schedule(instance);
+    int decode(Schedule schedule) {
+        int[] workspace = schedule.workspace(instance.numJobs + 2 * instance.numMachines);
+        // for each job, how many tasks have been scheduled : workspace[0 .. numJobs-1]
+        final int nextToScheduleByJob = 0;
+        // for each machine, how many tasks have been scheduled : workspace[numJobs .. numJobs+numMachines-1]
+        final int nextToScheduleByMachine = instance.numJobs;
+        // for each machine, earliest time at which the machine can be used : the next numMachines elements
+        final int releaseTimeOfMachine = instance.numJobs + instance.numMachines;
+
+        int remaining = instance.numJobs * instance.numTasks;
+        int makespan = 0;
+        // loop while there remains a job that has unscheduled tasks
+        while(remaining > 0) {
+            boolean progress = false;
+            for(int machine = 0; machine < instance.numMachines; machine++) {
+                // schedule the tasks of the machine while the next one has no unscheduled predecessor on its job
+                while(workspace[nextToScheduleByMachine + machine] < instance.numJobs) {
+                    Task t = tasksByMachine[machine][workspace[nextToScheduleByMachine + machine]];
+                    if(t.task != workspace[nextToScheduleByJob + t.job])
+                        break;
+
+                    // compute the earliest start time (est) of the task
+                    int est = t.task == 0 ? 0 : schedule.endTime(t.job, t.task-1);
+                    est = Math.max(est, workspace[releaseTimeOfMachine + machine]);
+                    schedule.setStartTime(t.job, t.task, est);
+
+                    // mark the task as scheduled
+                    workspace[nextToScheduleByJob + t.job]++;
+                    workspace[nextToScheduleByMachine + machine]++;
+                    // increase the release time of the machine
+                    int end = est + instance.duration(t.job, t.task);
+                    workspace[releaseTimeOfMachine + machine] = end;
+                    makespan = Math.max(makespan, end);
+                    remaining--;
+                    progress = true;
+                }
+            }
+            if(!progress) {
+                // no tasks are schedulable, we have cyclic dependency and there is no solution for this resource ordering
+                return INFEASIBLE;
+            }
+        }
+        // we exited the loop : all tasks have been scheduled successfully
+        return makespan;
+    }
 
-        // for each job, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByJob = new int[instance.numJobs];
+    /** Creates an exact copy of this resource order. */
+    public ResourceOrder copy() {
+        ResourceOrder copy = new ResourceOrder(instance);
+        copy.copyFrom(this);
+        return copy;
+    }
 
-        // for each machine, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByMachine = new int[instance.numMachines];
+    /** Replaces the content of this resource order by the one of another resource order of the same instance.
+     *
+     * Unlike going through a Schedule, this does not decode the solution and works on partial or invalid orders.
+     */
+    public void copyFrom(ResourceOrder other) {
+        if (other.instance != instance)
+            throw new IllegalArgumentException("Cannot copy a resource order of another instance");
+        for (int m = 0; m < instance.numMachines; m++) {
+            // tasks are immutable and can be shared between resource orders
+            System.arraycopy(other.tasksByMachine[m], 0, tasksByMachine[m], 0, instance.numJobs);
+        }
+        System.arraycopy(other.nextFreeSlot, 0, nextFreeSlot, 0, instance.numMachines);
+        zobrist = other.zobrist;
+    }
 
-        // for each machine, earliest time at which the machine can be used
-        int[] releaseTimeOfMachine = new int[instance.numMachines];
+    /** Number of bytes used by each job number in the packed representation of <code>writeTo</code>. */
+    static int bytesPerJob(Instance instance) {
+        return instance.numJobs <= 256 ? 1 : 2;
+    }
 
+    /** Number of bytes written by <code>writeTo</code> for a complete resource order of the given instance. */
+    public static int packedSize(Instance instance) {
+        return instance.numMachines * instance.numJobs * bytesPerJob(instance);
+    }
 
-        // loop while there remains a job that has unscheduled tasks
-        while(IntStream.range(0, instance.numJobs).anyMatch(m -> nextToScheduleByJob[m] < instance.numTasks)) {
-
-            // selects a task that has no unscheduled predecessor on its job and machine :
-            //  - it is the next to be schedule on a machine
-            //  - it is the next to be scheduled on its job
-            // If there is no such task, we have cyclic dependency and the solution is invalid.
-            Optional<Task> schedulable =
-                    IntStream.range(0, instance.numMachines) // all machines ...
-                    .filter(m -> nextToScheduleByMachine[m] < instance.numJobs) // ... with unscheduled jobs
-                    .mapToObj(m -> this.tasksByMachine[m][nextToScheduleByMachine[m]]) // tasks that are next to schedule on a machine ...
-                    .filter(task -> task.task == nextToScheduleByJob[task.job])  // ... and on their job
-                    .findFirst(); // select the first one if any
-
-            if(schedulable.isPresent()) {
-                // we have a schedulable task, lets call it t
-                Task t = schedulable.get();
-                int machine = instance.machine(t.job, t.task);
-
-                // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : schedule.endTime(t.job, t.task-1);
-                est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                schedule.setStartTime(t.job, t.task, est);
-
-                // mark the task as scheduled
-                nextToScheduleByJob[t.job]++;
-                nextToScheduleByMachine[machine]++;
-                // increase the release time of the machine
-                releaseTimeOfMachine[machine] = est + instance.duration(t.job, t.task);
-            } else {
-                // no tasks are schedulable, there is no solution for this resource ordering
-                return Optional.empty();
+    /** Writes a compact binary representation of this resource order to the buffer.
+     *
+     * For each machine, the job numbers of its tasks are written in order, as unsigned bytes if the instance has at
+     * most 256 jobs and as unsigned shorts otherwise. The resource order must be complete.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        boolean packedInBytes = bytesPerJob(instance) == 1;
+        for(int m = 0; m < instance.numMachines; m++) {
+            if(nextFreeSlot[m] != instance.numJobs)
+                throw new IllegalStateException("Cannot write an incomplete ResourceOrder");
+            for(int i = 0; i < instance.numJobs; i++) {
+                int job = tasksByMachine[m][i].job;
+                if(packedInBytes)
+                    buffer.put((byte) job);
+                else
+                    buffer.putShort((short) job);
             }
         }
-        // we exited the loop : all tasks have been scheduled successfully
-        return Optional.of(schedule);
     }
 
-    /** Creates an exact copy of this resource order.
+    /** Reads a resource order of the given instance, in the representation produced by <code>writeTo</code>.
      *
-     * May fail if the resource order does not represent a valid solution.
+     * @throws IllegalArgumentException if the buffer does not contain a resource order of this instance.
      */
-    public ResourceOrder copy() {
-        var schedule = this.toSchedule();
-        if (schedule.isEmpty()) {
-            throw new RuntimeException("Cannot copy an invalid ResourceOrder");
-        } else {
-            return new ResourceOrder(schedule.get());
+    public static ResourceOrder readFrom(Instance instance, ByteBuffer buffer) {
+        boolean packedInBytes = bytesPerJob(instance) == 1;
+        ResourceOrder order = new ResourceOrder(instance);
+        try {
+            for(int m = 0; m < instance.numMachines; m++) {
+                boolean[] seen = new boolean[instance.numJobs];
+                for(int i = 0; i < instance.numJobs; i++) {
+                    int job = packedInBytes ? Byte.toUnsignedInt(buffer.get()) : Short.toUnsignedInt(buffer.getShort());
+                    if(job >= instance.numJobs || seen[job])
+                        throw new IllegalArgumentException("Invalid job "+job+" on machine "+m);
+                    seen[job] = true;
+                    order.addToMachine(m, job);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated ResourceOrder", e);
         }
+        return order;
     }
 
     @Override
@@ -181,8 +261,6 @@ public final class ResourceOrder extends Encoding {
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(tasksByMachine);
-        result = 31 * result + Arrays.hashCode(nextFreeSlot);
-        return result;
+        return Long.hashCode(zobrist);
     }
 }
\ No newline at end of file
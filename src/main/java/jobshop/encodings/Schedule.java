@@ -1,7 +1,12 @@
 package jobshop.encodings;
 
 import jobshop.Instance;
+import jobshop.jfr.CriticalPathEvent;
+import jobshop.jfr.Recordings;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.IntStream;
 
@@ -11,23 +16,41 @@ import java.util.stream.IntStream;
  */
 public class Schedule extends Encoding {
 
-    // start times of each job and task
-    // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
-    final int[][] times;
+    // start times of each job and task, in a single array to keep large schedules compact in memory
+    // times[j * numTasks + i] is the start time of task (j,i) : i^th task of the j^th job
+    final int[] times;
+
+    // scratch memory of the decoders writing into this schedule (see Encoding.decodeInto), allocated on first use
+    private int[] workspace;
+
+    // value of the memoized makespan when it is not known
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    // makespan, first task finishing last and critical path, memoized on first use (the makespan is also set by
+    // Encoding.decodeInto) and forgotten when a start time changes. The critical path is immutable, which allows
+    // sharing it between threads.
+    private int makespan = UNKNOWN;
+    private Task lastTask;
+    private List<Task> criticalPath;
 
     /** Creates a new schedule for the given instance where all start times are uninitialized. */
     public Schedule(Instance instance) {
         super(instance);
-        this.times = new int[instance.numJobs][];
-        for(int j = 0; j < instance.numJobs ; j++) {
-            this.times[j] = new int[instance.numTasks];
-        }
+        this.times = new int[instance.numJobs * instance.numTasks];
     }
 
 
+    /** Returns a scratch array of at least the given size, filled with zeros, for decoders writing into this schedule. */
+    int[] workspace(int size) {
+        if(workspace == null || workspace.length < size)
+            workspace = new int[size];
+        else
+            Arrays.fill(workspace, 0, size, 0);
+        return workspace;
+    }
+
     /** Start time of the given task. */
     public int startTime(int job, int task) {
-        return times[job][task];
+        return times[job * instance.numTasks + task];
     }
 
     /** Start time of the given task. */
@@ -47,49 +70,48 @@ public class Schedule extends Encoding {
 
     /** Sets the start time of the given task. */
     public void setStartTime(int job, int task, int startTime) {
-        times[job][task] = startTime;
+        times[job * instance.numTasks + task] = startTime;
+        makespan = UNKNOWN;
+        lastTask = null;
+        criticalPath = null;
     }
 
-    /** Returns true if this schedule is valid (no constraint is violated) */
-    public boolean isValid() {
-        for(int j = 0; j<instance.numJobs ; j++) {
-            for(int t = 1; t< instance.numTasks ; t++) {
-                if(startTime(j, t-1) + instance.duration(j, t-1) > startTime(j, t))
-                    return false;
-            }
-            for(int t = 0; t< instance.numTasks ; t++) {
-                if(startTime(j, t) < 0)
-                    return false;
-            }
-        }
-
-        for (int machine = 0; machine < instance.numMachines ; machine++) {
-            for(int j1 = 0; j1< instance.numJobs ; j1++) {
-                int t1 = instance.task_with_machine(j1, machine);
-                for(int j2 = j1+1; j2< instance.numJobs ; j2++) {
-                    int t2 = instance.task_with_machine(j2, machine);
-
-                    boolean t1_first = endTime(j1, t1) <= startTime(j2, t2);
-                    boolean t2_first = endTime(j2, t2) <= startTime(j1, t1);
-
-                    if(!t1_first && !t2_first)
-                        return false;
-                }
-            }
-        }
+    /** Records the makespan computed by a decoder that has just written all start times of this schedule. */
+    void decoded(int makespan) {
+        if(makespan != Encoding.INFEASIBLE)
+            this.makespan = makespan;
+    }
 
-        return true;
+    /** Returns true if this schedule is valid (no constraint is violated).
+     * Use <code>ScheduleValidator.check()</code> to know which constraint is violated. */
+    public boolean isValid() {
+        return ScheduleValidator.check(this).isEmpty();
     }
 
     /** Makespan of the solution.
-     * The makespan is the end time of the latest finishing task.
+     * The makespan is the end time of the latest finishing task. It is only computed again after a start time changed.
      */
     public int makespan() {
-        int max = -1;
-        for(int j = 0; j< instance.numJobs ; j++) {
-            max = Math.max(max, endTime(j, instance.numTasks-1));
+        if(makespan == UNKNOWN) {
+            int max = -1;
+            for(int j = 0; j< instance.numJobs ; j++) {
+                max = Math.max(max, endTime(j, instance.numTasks-1));
+            }
+            makespan = max;
         }
-        return max;
+        return makespan;
+    }
+
+    /** The last task of the first job (by job number) that finishes at the makespan. */
+    public Task lastTask() {
+        if(lastTask == null) {
+            int makespan = makespan();
+            int j = 0;
+            while(endTime(j, instance.numTasks-1) != makespan)
+                j++;
+            lastTask = new Task(j, instance.numTasks-1);
+        }
+        return lastTask;
     }
 
     /** Returns true if the given sequence of task is a critical path of the schedule. */
@@ -109,14 +131,23 @@ public class Schedule extends Encoding {
 
     /** Computes a critical path of the schedule.
      *
-     * @return A sequence of task along a critical path.
+     * The path is only computed again after a start time changed.
+     *
+     * @return A sequence of task along a critical path, which cannot be modified.
      */
     public List<Task> criticalPath() {
+        if(criticalPath == null)
+            criticalPath = List.copyOf(computeCriticalPath());
+        return criticalPath;
+    }
+
+    private List<Task> computeCriticalPath() {
+        CriticalPathEvent event = Recordings.enabled() ? new CriticalPathEvent() : null;
+        if(event != null)
+            event.begin();
+
         // select task with greatest end time
-        Task ldd = IntStream.range(0, instance.numJobs)
-                .mapToObj(j -> new Task(j, instance.numTasks-1))
-                .max(Comparator.comparing(this::endTime))
-                .get();
+        Task ldd = lastTask();
         assert endTime(ldd) == makespan();
 
         // list that will contain the critical path.
@@ -156,6 +187,10 @@ public class Schedule extends Encoding {
             path.add(0, latestPredecessor.get());
         }
         assert isCriticalPath(path);
+        if(event != null && event.shouldCommit()) {
+            event.length = path.size();
+            event.commit();
+        }
         return path;
     }
 
@@ -184,56 +219,17 @@ public class Schedule extends Encoding {
      * For each task, we indicate :
      *  - the machine on which the task must be executed
      *  - whether this task is on the critical path (task on the critical path are filled in with stars).
+     *
+     * To render large schedules without building the whole chart in memory, see <code>GanttWriter</code>.
      */
     public String asciiGantt() {
-        var criticalPath = this.criticalPath();
-        int minTaskDur = IntStream.range(0, instance.numJobs).flatMap(job -> IntStream.range(0, instance.numTasks).map(task -> instance.duration(job, task))).min().getAsInt();
-        // time units by character
-        int charsPerTimeUnit = minTaskDur >= 5 ? 1 : (5 / minTaskDur) +1;
-        StringBuilder sb = new StringBuilder();
-        sb.append("\nGantt Chart\n");
-        for(int job = 0; job< instance.numJobs; job++) {
-            sb.append(String.format("Job %2d: ", job));
-            int cursor = 0;
-            for(int task = 0; task< instance.numTasks; task++) {
-                Task t = new Task(job, task);
-                var st = startTime(job, task);
-                // add spaces until the start of our task
-                sb.append(" ".repeat(charsPerTimeUnit * (st - cursor )));
-                sb.append(formatTask(t, charsPerTimeUnit, criticalPath.contains(t)));
-
-                cursor = endTime(job, task);
-            }
-            sb.append("\n");
+        StringWriter sw = new StringWriter();
+        try {
+            GanttWriter.ascii(this, sw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a StringWriter
         }
-        return sb.toString();
-    }
-
-    /** Utility function to display a set of characters representing a task in a gantt chart.
-     *
-     * @param t Task to display
-     * @param charPerTimeUnit How many characters to represent a time unit.
-     * @param isCritical Is the task on the critical path.
-     * @return Ascii representation of the task. Length is the duration * charPerTimeUnit.
-     */
-    String formatTask(Task t, int charPerTimeUnit, boolean isCritical) {
-        StringBuilder sb = new StringBuilder();
-        String fill = isCritical ? "*" : "-";
-        int dur = instance.duration(t);
-        int machine = instance.machine(t);
-        int stringLength = dur * charPerTimeUnit;
-        int charsForMachine = machine < 10 ? 1 : 2;
-        int numSpaces = stringLength - 2 - charsForMachine; // we use 2 chars for '[' and '[' + 1 or 2 for the machine number
-        int startSpaces = numSpaces / 2;
-        int endSpaces = numSpaces - startSpaces;
-        sb.append("[");
-        sb.append(fill.repeat(startSpaces - 1));
-        sb.append(" ");
-        sb.append(machine);
-        sb.append(" ");
-        sb.append(fill.repeat(endSpaces - 1));
-        sb.append("]");
-        return sb.toString();
+        return sw.toString();
     }
 
 
@@ -241,4 +237,15 @@ public class Schedule extends Encoding {
     public Optional<Schedule> toSchedule() {
         return Optional.of(this);
     }
+
+    @Override
+    int decode(Schedule schedule) {
+        if(schedule != this) {
+            System.arraycopy(times, 0, schedule.times, 0, times.length);
+            schedule.makespan = makespan;
+            schedule.lastTask = lastTask;
+            schedule.criticalPath = criticalPath;
+        }
+        return makespan();
+    }
 }
@@ -0,0 +1,124 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/** Checks that a schedule respects all constraints of its instance and reports the first violated one.
+ *
+ * The check runs in O(n.m.log(n)) for n jobs and m machines: the tasks of each machine are sorted by start time and
+ * only consecutive tasks are compared. On large instances, machines are checked in parallel.
+ */
+public final class ScheduleValidator {
+
+    /** Minimal number of tasks in an instance for machines to be checked in parallel. */
+    static final int PARALLEL_THRESHOLD = 100_000;
+
+    private ScheduleValidator() {}
+
+    /** A constraint violated by a schedule. */
+    public static final class Violation {
+
+        /** The kinds of constraints of a jobshop problem. */
+        public enum Kind {
+            /** A task starts before time 0. */
+            NegativeStart,
+            /** A task starts before the end of the previous task of its job. */
+            Precedence,
+            /** Two tasks overlap on the same machine. */
+            MachineConflict
+        }
+
+        /** Kind of the violated constraint. */
+        public final Kind kind;
+        /** Task that violates the constraint. */
+        public final Task task;
+        /** Other task involved in the constraint, null for NegativeStart. */
+        public final Task other;
+
+        private final String message;
+
+        Violation(Kind kind, Task task, Task other, String message) {
+            this.kind = kind;
+            this.task = task;
+            this.other = other;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ": " + message;
+        }
+    }
+
+    /** Returns the first violated constraint of the schedule or an empty optional if the schedule is valid. */
+    public static Optional<Violation> check(Schedule schedule) {
+        Instance instance = schedule.instance;
+
+        for(int j = 0; j<instance.numJobs ; j++) {
+            for(int t = 0; t< instance.numTasks ; t++) {
+                if(schedule.startTime(j, t) < 0)
+                    return Optional.of(new Violation(Violation.Kind.NegativeStart, new Task(j, t), null,
+                            "task " + new Task(j, t) + " starts at " + schedule.startTime(j, t)));
+                if(t > 0 && schedule.endTime(j, t-1) > schedule.startTime(j, t))
+                    return Optional.of(new Violation(Violation.Kind.Precedence, new Task(j, t), new Task(j, t-1),
+                            "task " + new Task(j, t) + " starts at " + schedule.startTime(j, t) +
+                            " before the end of " + new Task(j, t-1) + " at " + schedule.endTime(j, t-1)));
+            }
+        }
+
+        // bucket tasks by machine: tasksOnMachine[m] contains the identifier (job * numTasks + task) of each task
+        // executing on m (each job has exactly one task on each machine)
+        int[][] tasksOnMachine = new int[instance.numMachines][instance.numJobs];
+        int[] count = new int[instance.numMachines];
+        for(int j = 0; j<instance.numJobs ; j++) {
+            for(int t = 0; t< instance.numTasks ; t++) {
+                int m = instance.machine(j, t);
+                tasksOnMachine[m][count[m]++] = j * instance.numTasks + t;
+            }
+        }
+
+        IntStream machines = IntStream.range(0, instance.numMachines);
+        if((long) instance.numJobs * instance.numTasks >= PARALLEL_THRESHOLD)
+            machines = machines.parallel();
+        return machines
+                .mapToObj(m -> checkMachine(schedule, tasksOnMachine[m], count[m]))
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    /** Checks that no two tasks of a machine overlap.
+     *
+     * @param tasks Identifiers (job * numTasks + task) of the tasks executing on the machine.
+     * @param numTasks Number of tasks in the array.
+     */
+    private static Optional<Violation> checkMachine(Schedule schedule, int[] tasks, int numTasks) {
+        Instance instance = schedule.instance;
+        // sort by start time, tasks of zero duration first in case of equality, by packing all into a single long
+        long[] keys = new long[numTasks];
+        for(int i = 0; i < numTasks; i++) {
+            int job = tasks[i] / instance.numTasks;
+            int task = tasks[i] % instance.numTasks;
+            long positiveDuration = instance.duration(job, task) > 0 ? 1L << 31 : 0;
+            keys[i] = ((long) schedule.startTime(job, task) << 32) | positiveDuration | tasks[i];
+        }
+        Arrays.sort(keys);
+
+        for(int i = 1; i < numTasks; i++) {
+            int prev = (int) (keys[i-1] & Integer.MAX_VALUE);
+            int cur = (int) (keys[i] & Integer.MAX_VALUE);
+            int prevEnd = schedule.endTime(prev / instance.numTasks, prev % instance.numTasks);
+            int curStart = schedule.startTime(cur / instance.numTasks, cur % instance.numTasks);
+            if(prevEnd > curStart) {
+                Task prevTask = new Task(prev / instance.numTasks, prev % instance.numTasks);
+                Task curTask = new Task(cur / instance.numTasks, cur % instance.numTasks);
+                return Optional.of(new Violation(Violation.Kind.MachineConflict, curTask, prevTask,
+                        "task " + curTask + " starts at " + schedule.startTime(curTask) + " on machine " +
+                        instance.machine(curTask) + " before the end of " + prevTask + " at " + prevEnd));
+            }
+        }
+        return Optional.empty();
+    }
+}
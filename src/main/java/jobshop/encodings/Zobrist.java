@@ -0,0 +1,20 @@
+package jobshop.encodings;
+
+/** Zobrist keys used to hash encodings incrementally.
+ *
+ * Rather than storing a table of random numbers, the key of a (row, position, value) triple is derived on the fly with
+ * the splitmix64 finalizer. Keys are thus deterministic, well distributed and cost no memory.
+ */
+final class Zobrist {
+
+    private Zobrist() {}
+
+    /** Random-looking 64 bits key associated to the given value being placed at (row, position). */
+    static long key(int row, int position, int value) {
+        long z = ((long) row << 42) ^ ((long) position << 21) ^ value;
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
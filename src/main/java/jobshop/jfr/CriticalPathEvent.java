@@ -0,0 +1,21 @@
+package jobshop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event covering the extraction of the critical path of a schedule. */
+@Name("jobshop.CriticalPath")
+@Label("Critical Path Extraction")
+@Category({"Jobshop", "Encoding"})
+@Description("Extraction of the critical path of a schedule")
+@StackTrace(false)
+public class CriticalPathEvent extends Event {
+
+    @Label("Length")
+    @Description("Number of tasks on the critical path")
+    public int length;
+}
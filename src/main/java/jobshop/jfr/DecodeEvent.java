@@ -0,0 +1,24 @@
+package jobshop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event covering the conversion of an encoding into a schedule. */
+@Name("jobshop.Decode")
+@Label("Decode")
+@Category({"Jobshop", "Encoding"})
+@Description("Conversion of an encoding into a schedule with toSchedule() or decodeInto()")
+@StackTrace(false)
+public class DecodeEvent extends Event {
+
+    @Label("Encoding")
+    public String encoding;
+
+    @Label("Feasible")
+    @Description("Whether the encoding represents a valid schedule")
+    public boolean feasible;
+}
@@ -0,0 +1,21 @@
+package jobshop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event emitted each time a solver finds a new best solution. */
+@Name("jobshop.NewIncumbent")
+@Label("New Incumbent")
+@Category({"Jobshop", "Solver"})
+@Description("A solver found a new best solution")
+public class IncumbentEvent extends Event {
+
+    @Label("Iteration")
+    public long iteration;
+
+    @Label("Makespan")
+    public int makespan;
+}
@@ -0,0 +1,28 @@
+package jobshop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event covering the generation of all neighbors of a solution. */
+@Name("jobshop.NeighborhoodGeneration")
+@Label("Neighborhood Generation")
+@Category({"Jobshop", "Neighborhood"})
+@Description("Generation of all neighbors of a solution")
+@StackTrace(false)
+public class NeighborhoodEvent extends Event {
+
+    @Label("Neighborhood")
+    public String neighborhood;
+
+    @Label("Blocks")
+    @Description("Number of blocks on the critical path")
+    public int blocks;
+
+    @Label("Neighbors")
+    @Description("Number of neighbors generated")
+    public int neighbors;
+}
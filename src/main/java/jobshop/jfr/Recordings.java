@@ -0,0 +1,54 @@
+package jobshop.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/** Utility to record the execution of solvers with the JDK Flight Recorder.
+ *
+ * The resulting file can be opened with JDK Mission Control or inspected with the <code>jfr</code> command line tool
+ * (e.g. <code>jfr print --events jobshop.Decode recording.jfr</code>).
+ */
+public final class Recordings {
+
+    /** All custom events of the solvers. */
+    public static final List<Class<? extends Event>> EVENTS = List.of(
+            SolverIterationEvent.class,
+            NeighborhoodEvent.class,
+            CriticalPathEvent.class,
+            DecodeEvent.class,
+            IncumbentEvent.class);
+
+    private Recordings() {}
+
+    /** True if the flight recorder has been initialized, either by <code>start()</code> or by the
+     * <code>-XX:StartFlightRecording</code> JVM option.
+     *
+     * Solvers only create events when this is true: the first use of an event class initializes the flight recorder,
+     * which takes a few hundred milliseconds even if no recording is ever started.
+     */
+    public static boolean enabled() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /** Starts a new recording with the JDK "profile" settings and all solver events enabled.
+     *
+     * @param destination File to which the recording is written when it is stopped.
+     */
+    public static Recording start(Path destination) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("jobshop");
+        for(Class<? extends Event> event : EVENTS) {
+            recording.enable(event);
+        }
+        recording.setDestination(destination);
+        recording.start();
+        return recording;
+    }
+}
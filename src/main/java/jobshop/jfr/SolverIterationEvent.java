@@ -0,0 +1,34 @@
+package jobshop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event covering one iteration of a local search solver. */
+@Name("jobshop.SolverIteration")
+@Label("Solver Iteration")
+@Category({"Jobshop", "Solver"})
+@Description("One iteration of a local search solver")
+@StackTrace(false)
+public class SolverIterationEvent extends Event {
+
+    @Label("Solver")
+    public String solver;
+
+    @Label("Instance")
+    public String instance;
+
+    @Label("Iteration")
+    public long iteration;
+
+    @Label("Neighbors")
+    @Description("Number of neighbors evaluated during the iteration")
+    public int neighbors;
+
+    @Label("Makespan")
+    @Description("Makespan of the current solution at the end of the iteration")
+    public int makespan;
+}
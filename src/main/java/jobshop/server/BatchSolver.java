@@ -0,0 +1,258 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.solvers.CancellationToken;
+import jobshop.solvers.IncumbentListener;
+import jobshop.solvers.Solver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Solves many requests concurrently, each on its own virtual thread, with a bounded number of running solvers.
+ *
+ * It is meant for bursts of many small requests with short budgets. Each request has an absolute deadline:
+ * <ul>
+ *     <li>requests wait in a queue ordered by deadline (earliest deadline first) until one of the
+ *     <code>maxConcurrency</code> slots is free, so that the CPUs are never oversubscribed;</li>
+ *     <li>a request is only started if at least <code>minBudget</code> milliseconds are left before its deadline.
+ *     Otherwise it is rejected, on submission or as soon as it can no longer be started in time, without using any
+ *     CPU time;</li>
+ *     <li>each request gets its own Outcome, whether it was solved, rejected or failed.</li>
+ * </ul>
+ * Solvers running on virtual threads yield their carrier thread each time they check their CancellationToken, so
+ * that a long search does not monopolize a carrier thread.
+ *
+ * Solvers may be shared by several requests: the solvers of this project keep all the state of a search in
+ * <code>solve()</code>.
+ */
+public final class BatchSolver implements AutoCloseable {
+
+    /** A request to solve an instance by a deadline. */
+    public static final class Request {
+        public final Instance instance;
+        public final Solver solver;
+        /** Absolute time, in milliseconds (see System.currentTimeMillis()), by which the result is needed. */
+        public final long deadline;
+
+        public Request(Instance instance, Solver solver, long deadline) {
+            this.instance = instance;
+            this.solver = solver;
+            this.deadline = deadline;
+        }
+    }
+
+    /** What happened to a request. */
+    public enum Status {
+        /** The solver ran and returned a result. */
+        Solved,
+        /** The request could not be started in time, or the batch solver was closed. */
+        Rejected,
+        /** The solver threw an exception. */
+        Failed
+    }
+
+    /** The outcome of a request. */
+    public static final class Outcome {
+        public final Request request;
+        public final Status status;
+        /** Result of the solver, present if the request was solved. */
+        public final Optional<Result> result;
+        /** Reason of a rejection or failure. */
+        public final String reason;
+        /** Time spent in the queue, in milliseconds. */
+        public final long waitTime;
+        /** Time spent solving, in milliseconds (0 if the request was not started). */
+        public final long runtime;
+
+        Outcome(Request request, Status status, Optional<Result> result, String reason, long waitTime, long runtime) {
+            this.request = request;
+            this.status = status;
+            this.result = result;
+            this.reason = reason;
+            this.waitTime = waitTime;
+            this.runtime = runtime;
+        }
+    }
+
+    /** A request waiting for a slot. */
+    private static final class Pending implements Comparable<Pending> {
+        final Request request;
+        final long submitted = System.currentTimeMillis();
+        // submission order, to break ties between equal deadlines
+        final long sequence;
+        final CompletableFuture<Outcome> future = new CompletableFuture<>();
+
+        Pending(Request request, long sequence) {
+            this.request = request;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Pending o) {
+            int c = Long.compare(request.deadline, o.request.deadline);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    private final int maxConcurrency;
+    private final long minBudget;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // a lock rather than synchronized blocks: a virtual thread blocked in a synchronized block pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // signalled when the queue changes, to wake up the thread rejecting expired requests
+    private final Condition queueChanged = lock.newCondition();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private final Set<CancellationToken> running = new HashSet<>();
+    private boolean closed = false;
+    private final Thread expirer;
+
+    /** Creates a new batch solver.
+     *
+     * @param maxConcurrency Maximal number of requests solved at the same time, usually the number of processors.
+     * @param minBudget Minimal time left before the deadline of a request, in milliseconds, for it to be started.
+     */
+    public BatchSolver(int maxConcurrency, long minBudget) {
+        if(maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.minBudget = minBudget;
+        this.expirer = Thread.ofVirtual().name("batch-expirer").start(this::expireLoop);
+    }
+
+    /** Submits a request. The future completes with its outcome and never completes exceptionally. */
+    public CompletableFuture<Outcome> submit(Request request) {
+        Pending pending = new Pending(request, sequence.getAndIncrement());
+        lock.lock();
+        try {
+            if(closed) {
+                reject(pending, "batch solver closed");
+            } else if(!startable(pending)) {
+                reject(pending, "not enough time left before the deadline");
+            } else {
+                queue.add(pending);
+                queueChanged.signal();
+                dispatch();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return pending.future;
+    }
+
+    /** Solves all requests and returns their outcomes, in the order of the requests. */
+    public List<Outcome> solveAll(List<Request> requests) {
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>();
+        for(Request request : requests)
+            futures.add(submit(request));
+        List<Outcome> outcomes = new ArrayList<>();
+        for(CompletableFuture<Outcome> future : futures)
+            outcomes.add(future.join());
+        return outcomes;
+    }
+
+    /** True if the request can still be started with its minimal budget. */
+    private boolean startable(Pending pending) {
+        return pending.request.deadline - System.currentTimeMillis() >= minBudget;
+    }
+
+    private static void reject(Pending pending, String reason) {
+        pending.future.complete(new Outcome(pending.request, Status.Rejected, Optional.empty(), reason,
+                System.currentTimeMillis() - pending.submitted, 0));
+    }
+
+    /** Starts queued requests while slots are free. Must be called with the lock held. */
+    private void dispatch() {
+        while(running.size() < maxConcurrency && !queue.isEmpty()) {
+            Pending pending = queue.poll();
+            if(!startable(pending)) {
+                reject(pending, "not enough time left before the deadline");
+                continue;
+            }
+            CancellationToken token = new CancellationToken();
+            running.add(token);
+            Thread.ofVirtual().name("batch-solve-" + pending.sequence).start(() -> run(pending, token));
+        }
+    }
+
+    /** Solves a request on its virtual thread and starts the next ones when it is done. */
+    private void run(Pending pending, CancellationToken token) {
+        long start = System.currentTimeMillis();
+        long waitTime = start - pending.submitted;
+        Outcome outcome;
+        try {
+            Result result = pending.request.solver.solve(pending.request.instance, pending.request.deadline,
+                    IncumbentListener.NONE, token);
+            outcome = new Outcome(pending.request, Status.Solved, Optional.of(result), null, waitTime,
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException | Error e) {
+            outcome = new Outcome(pending.request, Status.Failed, Optional.empty(), e.toString(), waitTime,
+                    System.currentTimeMillis() - start);
+        }
+        lock.lock();
+        try {
+            running.remove(token);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        pending.future.complete(outcome);
+    }
+
+    /** Rejects queued requests as soon as they can no longer be started in time. */
+    private void expireLoop() {
+        lock.lock();
+        try {
+            while(!closed) {
+                // the queue is ordered by deadline: its head is the first request to expire
+                while(!queue.isEmpty() && !startable(queue.peek()))
+                    reject(queue.poll(), "not enough time left before the deadline");
+                if(queue.isEmpty())
+                    queueChanged.await();
+                else
+                    queueChanged.await(queue.peek().request.deadline - minBudget - System.currentTimeMillis() + 1,
+                            TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of requests waiting for a slot. */
+    public int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Rejects the queued requests and cancels the running ones, whose outcomes complete shortly after. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while(!queue.isEmpty())
+                reject(queue.poll(), "batch solver closed");
+            running.forEach(CancellationToken::cancel);
+            queueChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        expirer.interrupt();
+    }
+}
@@ -0,0 +1,127 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Binary protocol between an IslandSolver (the coordinator) and its IslandWorkers.
+ *
+ * All integers are big-endian, as written by DataOutputStream. A connection carries a single search:
+ * <pre>
+ *   coordinator: JOB    MAGIC VERSION instance solver seed budget-ms epoch-ms
+ *   worker:      REPORT makespan order?      (after each epoch)
+ *   coordinator: BEST   makespan order?      (reply to each REPORT)
+ *   ...
+ *   worker:      FINAL  makespan order?      (at the end of the budget, no reply)
+ * </pre>
+ * Strings and the instance (in the text format of the instances/ folder) are written as their length followed by
+ * their UTF-8 bytes. In REPORT, FINAL and BEST messages, the order follows only if the makespan is not NONE: a worker
+ * sends its best solution only if it improved since its last report, and the coordinator sends the global best
+ * solution only if it is better than the one reported by the worker. Orders are written with
+ * <code>ResourceOrder.writeTo</code>, in <code>ResourceOrder.packedSize</code> bytes.
+ */
+final class IslandProtocol {
+
+    private IslandProtocol() {}
+
+    /** First bytes of a JOB message: "JSIS" in ASCII. */
+    static final int MAGIC = 0x4A534953;
+    static final int VERSION = 1;
+
+    /** Types of the messages sent by workers. */
+    static final byte REPORT = 1, FINAL = 2;
+
+    /** Makespan of a message that carries no solution. */
+    static final int NONE = -1;
+
+    /** Upper bound on the size of strings, to fail fast on corrupted streams. */
+    private static final int MAX_STRING_BYTES = 64 << 20;
+
+    /** A search requested by the coordinator. */
+    static final class Job {
+        final Instance instance;
+        final String solver;
+        final long seed;
+        /** Duration of the search, in milliseconds from the reception of the job. */
+        final long budget;
+        /** Duration of the search between two exchanges with the coordinator, in milliseconds. */
+        final long epoch;
+
+        Job(Instance instance, String solver, long seed, long budget, long epoch) {
+            this.instance = instance;
+            this.solver = solver;
+            this.seed = seed;
+            this.budget = budget;
+            this.epoch = epoch;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            StringWriter text = new StringWriter();
+            instance.writeTo(text);
+            writeString(out, instance.name);
+            writeString(out, text.toString());
+            writeString(out, solver);
+            out.writeLong(seed);
+            out.writeLong(budget);
+            out.writeLong(epoch);
+            out.flush();
+        }
+
+        static Job readFrom(DataInputStream in) throws IOException {
+            if(in.readInt() != MAGIC)
+                throw new IOException("not an island job");
+            int version = in.readInt();
+            if(version != VERSION)
+                throw new IOException("unsupported island protocol version " + version);
+            String name = readString(in);
+            Instance instance = Instance.fromLines(name, Arrays.asList(readString(in).split("\n")));
+            return new Job(instance, readString(in), in.readLong(), in.readLong(), in.readLong());
+        }
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if(length < 0 || length > MAX_STRING_BYTES)
+            throw new IOException("invalid string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Writes a makespan followed, if it is not NONE, by the solution. */
+    static void writeSolution(DataOutputStream out, int makespan, ResourceOrder order) throws IOException {
+        out.writeInt(makespan);
+        if(makespan != NONE) {
+            ByteBuffer buffer = ByteBuffer.allocate(ResourceOrder.packedSize(order.instance));
+            order.writeTo(buffer);
+            out.write(buffer.array());
+        }
+        out.flush();
+    }
+
+    /** Reads the solution following a makespan that is not NONE. */
+    static ResourceOrder readOrder(DataInputStream in, Instance instance) throws IOException {
+        byte[] bytes = new byte[ResourceOrder.packedSize(instance)];
+        in.readFully(bytes);
+        try {
+            return ResourceOrder.readFrom(instance, ByteBuffer.wrap(bytes));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid solution: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.Trace;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.CancellationToken;
+import jobshop.solvers.IncumbentListener;
+import jobshop.solvers.Solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** A solver that runs one search per worker process (island) and exchanges their best solutions periodically.
+ *
+ * Workers are IslandWorker processes, either launched by <code>launch</code> on the local machine or already running
+ * and reached with <code>connect</code>. Each solve opens one connection per worker and sends it the instance; every
+ * epoch, each worker reports its best solution, and the coordinator replies with the best solution of all islands
+ * when it is better, in the compact format of <code>ResourceOrder.writeTo</code> (see IslandProtocol). Searches run
+ * in separate JVMs, so they do not compete for a heap and a garbage collector.
+ *
+ * The coordinator returns the best solution reported by the deadline. Workers are given a slightly shorter budget so
+ * that their final report arrives in time.
+ */
+public final class IslandSolver implements Solver, AutoCloseable {
+
+    /** Time kept by the coordinator to receive the final reports, in milliseconds. */
+    static final long MARGIN_MS = 50;
+
+    final List<InetSocketAddress> workers;
+    final String solverName;
+    final long epoch;
+    final long seed;
+    // processes started by launch(), destroyed by close()
+    private final List<Process> processes;
+    private final Thread shutdownHook;
+
+    private IslandSolver(List<InetSocketAddress> workers, List<Process> processes, String solverName, long epoch, long seed) {
+        if(workers.isEmpty())
+            throw new IllegalArgumentException("No island worker");
+        Solver.getSolver(solverName); // fail early on unknown solvers
+        this.workers = List.copyOf(workers);
+        this.processes = List.copyOf(processes);
+        this.solverName = solverName;
+        this.epoch = epoch;
+        this.seed = seed;
+        this.shutdownHook = processes.isEmpty() ? null : new Thread(() -> this.processes.forEach(Process::destroy));
+        if(shutdownHook != null)
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /** Creates a coordinator using workers that are already running.
+     *
+     * @param workers Addresses of the workers.
+     * @param solverName Name of the solver run by each island (see Solver.getSolver), usually a pipeline ending with
+     *                   a local search, e.g. <code>estlrpt>ils</code>.
+     * @param epoch Time between two exchanges of solutions, in milliseconds.
+     * @param seed Seed of the first island, the following ones using the next seeds.
+     */
+    public static IslandSolver connect(List<InetSocketAddress> workers, String solverName, long epoch, long seed) {
+        return new IslandSolver(workers, List.of(), solverName, epoch, seed);
+    }
+
+    /** Launches worker processes on the local machine, with the classpath of the current JVM, and uses them.
+     *
+     * The workers exit when the coordinator is closed or its JVM exits.
+     *
+     * @param numWorkers Number of worker processes to launch.
+     */
+    public static IslandSolver launch(int numWorkers, String solverName, long epoch, long seed) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> workers = new ArrayList<>();
+        try {
+            for(int i = 0; i < numWorkers; i++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        IslandWorker.class.getName(), "--port", "0", "--exit-on-eof")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+            }
+            // read the ports once all processes are started, so that the JVMs start in parallel
+            for(Process process : processes) {
+                BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = out.readLine();
+                if(line == null || !line.startsWith("LISTENING "))
+                    throw new IOException("island worker failed to start: " + line);
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                        Integer.parseInt(line.substring("LISTENING ".length()))));
+            }
+        } catch (IOException | RuntimeException e) {
+            processes.forEach(Process::destroy);
+            throw e;
+        }
+        return new IslandSolver(workers, processes, solverName, epoch, seed);
+    }
+
+    /** Addresses of the workers. */
+    public List<InetSocketAddress> workers() {
+        return workers;
+    }
+
+    /** Best solution of all islands during a solve. */
+    private static final class Incumbent {
+        final Trace trace = new Trace();
+        final SolverMetrics metrics = new SolverMetrics();
+        final IncumbentListener listener;
+        ResourceOrder order;
+        int makespan = Integer.MAX_VALUE;
+
+        Incumbent(IncumbentListener listener) {
+            this.listener = listener;
+        }
+
+        /** Records a solution reported by an island, after checking its makespan. */
+        synchronized void report(ResourceOrder candidate, int reported, long epoch) throws IOException {
+            Optional<Schedule> schedule = candidate.toSchedule();
+            if(schedule.isEmpty() || schedule.get().makespan() != reported)
+                throw new IOException("island reported an invalid solution");
+            metrics.evaluated();
+            if(reported < makespan) {
+                order = candidate;
+                makespan = reported;
+                trace.improved(epoch, makespan);
+                metrics.improved();
+                listener.newIncumbent(schedule.get(), makespan);
+            }
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        Incumbent incumbent = new Incumbent(listener);
+        long budget = deadline - System.currentTimeMillis() - MARGIN_MS;
+        List<Socket> sockets = new ArrayList<>();
+        List<Thread> islands = new ArrayList<>();
+        for(int i = 0; i < workers.size(); i++) {
+            IslandProtocol.Job job = new IslandProtocol.Job(instance, solverName, seed + i, Math.max(0, budget), epoch);
+            Socket socket = new Socket();
+            sockets.add(socket);
+            InetSocketAddress address = workers.get(i);
+            Thread island = new Thread(() -> exchange(socket, address, job, incumbent), "island-" + address);
+            island.setDaemon(true);
+            island.start();
+            islands.add(island);
+        }
+
+        // wait for the final reports, until the deadline or cancellation
+        try {
+            for(Thread island : islands) {
+                while(island.isAlive() && !token.isCancelled() && System.currentTimeMillis() < deadline)
+                    island.join(Math.max(1, Math.min(10, deadline - System.currentTimeMillis())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // closing the connections stops the islands that are still running
+        for(Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+
+        synchronized (incumbent) {
+            Result.ExitCause cause = token.isCancelled() ? Result.ExitCause.Cancelled : Result.ExitCause.Timeout;
+            Optional<Schedule> schedule = incumbent.order == null ? Optional.empty() : incumbent.order.toSchedule();
+            return new Result(instance, schedule, cause, incumbent.trace, incumbent.metrics);
+        }
+    }
+
+    /** Runs the exchanges with one island until its final report. */
+    private static void exchange(Socket socket, InetSocketAddress address, IslandProtocol.Job job, Incumbent incumbent) {
+        Instance instance = job.instance;
+        try(socket) {
+            socket.connect(address);
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            job.writeTo(out);
+            // best makespan of the island, as far as the coordinator knows
+            int island = Integer.MAX_VALUE;
+            for(long epoch = 0; ; epoch++) {
+                byte type = in.readByte();
+                int span = in.readInt();
+                if(span != IslandProtocol.NONE) {
+                    incumbent.report(IslandProtocol.readOrder(in, instance), span, epoch);
+                    island = span;
+                }
+                if(type == IslandProtocol.FINAL)
+                    return;
+                if(type != IslandProtocol.REPORT)
+                    throw new IOException("unexpected message " + type);
+
+                ResourceOrder best;
+                int bestspan;
+                synchronized (incumbent) {
+                    best = incumbent.order;
+                    bestspan = incumbent.makespan;
+                }
+                if(best != null && bestspan < island) {
+                    IslandProtocol.writeSolution(out, bestspan, best);
+                    island = bestspan;
+                } else {
+                    IslandProtocol.writeSolution(out, IslandProtocol.NONE, null);
+                }
+            }
+        } catch (IOException e) {
+            // the island is lost or the solve is over: the solutions it reported so far are kept
+        }
+    }
+
+    /** Stops the launched worker processes. */
+    @Override
+    public void close() {
+        processes.forEach(Process::destroy);
+        if(shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down
+            }
+        }
+    }
+}
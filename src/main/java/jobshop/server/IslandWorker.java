@@ -0,0 +1,204 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.CancellationToken;
+import jobshop.solvers.IncumbentListener;
+import jobshop.solvers.LocalSearch;
+import jobshop.solvers.SearchContext;
+import jobshop.solvers.Solver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A worker process of an island search, listening on the loopback interface.
+ *
+ * Each connection of a coordinator (IslandSolver) carries one search, see IslandProtocol. The worker runs the
+ * requested solver on the instance for one epoch, reports its best solution to the coordinator and receives the best
+ * solution of all islands in return. If that solution is better than its own, the worker continues from it.
+ *
+ * After the first epoch, the search continues with the local searches of the solver (for solvers implementing
+ * LocalSearch, such as pipelines): each epoch starts from the best solution known to the island. Other solvers are
+ * run again from scratch with a new seed at each epoch, and ignore the solutions of other islands.
+ */
+public final class IslandWorker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService searches;
+    private final Thread acceptor;
+
+    /** Creates a new worker on the loopback interface and starts accepting connections.
+     *
+     * @param port Port on which to listen, 0 to pick any free port (see <code>port()</code>).
+     */
+    public IslandWorker(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        AtomicInteger count = new AtomicInteger();
+        this.searches = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "island-search-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.acceptor = new Thread(this::acceptLoop, "island-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /** Port on which the worker is listening. */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Blocks until the worker is closed. */
+    public void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    private void acceptLoop() {
+        while(!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                searches.execute(() -> handle(socket));
+            } catch (IOException e) {
+                // the server socket was closed
+            }
+        }
+    }
+
+    /** Runs the search requested on the connection. */
+    private void handle(Socket socket) {
+        try(socket;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            search(IslandProtocol.Job.readFrom(in), in, out);
+        } catch (IOException | RuntimeException e) {
+            // the coordinator is gone or sent an invalid request: the search is abandoned
+        }
+    }
+
+    private static void search(IslandProtocol.Job job, DataInputStream in, DataOutputStream out) throws IOException {
+        Instance instance = job.instance;
+        long deadline = System.currentTimeMillis() + job.budget;
+        CancellationToken token = new CancellationToken();
+        Solver solver = Solver.getSolver(job.solver, null, job.seed);
+
+        Result first = solver.solve(instance, epochEnd(job, deadline), IncumbentListener.NONE, token);
+        Schedule schedule = first.schedule.orElseThrow(() -> new IllegalStateException(job.solver + " found no solution"));
+        ResourceOrder best = new ResourceOrder(schedule);
+        int bestspan = schedule.makespan();
+        boolean improved = true;
+
+        for(long epoch = 1; ; epoch++) {
+            boolean last = System.currentTimeMillis() >= deadline;
+            out.writeByte(last ? IslandProtocol.FINAL : IslandProtocol.REPORT);
+            IslandProtocol.writeSolution(out, improved ? bestspan : IslandProtocol.NONE, best);
+            improved = false;
+            if(last)
+                return;
+
+            int span = in.readInt();
+            if(span != IslandProtocol.NONE) {
+                ResourceOrder immigrant = IslandProtocol.readOrder(in, instance);
+                // the coordinator only sends solutions better than ours
+                best = immigrant;
+                bestspan = span;
+            }
+
+            long end = epochEnd(job, deadline);
+            if(solver instanceof LocalSearch) {
+                SearchContext context = new SearchContext(IncumbentListener.NONE, token);
+                context.started(bestspan);
+                Result.ExitCause cause = ((LocalSearch) solver).improve(best, bestspan, end, context);
+                improved = context.bestMakespan() < bestspan;
+                bestspan = context.bestMakespan();
+                if(cause == Result.ExitCause.Blocked)
+                    sleepUntil(end); // stuck in a local minimum until another island finds a better solution
+            } else {
+                Result result = Solver.getSolver(job.solver, null, job.seed + epoch).solve(instance, end);
+                if(result.schedule.isPresent() && result.schedule.get().makespan() < bestspan) {
+                    best = new ResourceOrder(result.schedule.get());
+                    bestspan = result.schedule.get().makespan();
+                    improved = true;
+                }
+            }
+        }
+    }
+
+    /** End of an epoch starting now. */
+    private static long epochEnd(IslandProtocol.Job job, long deadline) {
+        return Math.min(deadline, System.currentTimeMillis() + job.epoch);
+    }
+
+    private static void sleepUntil(long time) {
+        long remaining;
+        while((remaining = time - System.currentTimeMillis()) > 0) {
+            try {
+                Thread.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Stops accepting connections. Running searches are abandoned. */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        searches.shutdownNow();
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-island-worker").build()
+                .defaultHelp(true)
+                .description("Runs the searches of island coordinators (see jobshop.server.IslandSolver).");
+        parser.addArgument("--port")
+                .setDefault(0)
+                .type(Integer.class)
+                .help("Port on which to listen on the loopback interface, 0 for any free port.");
+        parser.addArgument("--exit-on-eof")
+                .action(Arguments.storeTrue())
+                .help("Exit when the standard input is closed, e.g. when the process that launched the worker exits.");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try(IslandWorker worker = new IslandWorker(ns.getInt("port"))) {
+            // the launcher reads the port from the first line of the output
+            System.out.println("LISTENING " + worker.port());
+            System.out.flush();
+            if(ns.getBoolean("exit_on_eof")) {
+                while(System.in.read() >= 0) {
+                    // ignore the input until the launcher exits
+                }
+                return;
+            }
+            worker.awaitTermination();
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolutionStore;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleValidator;
+import jobshop.solvers.CancellationToken;
+import jobshop.solvers.IncumbentListener;
+import jobshop.solvers.Solver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A long-running solver service listening on the loopback interface.
+ *
+ * It keeps the JVM warm between solves: clients connect with a TCP socket and submit jobs with a line-based protocol.
+ * Jobs are put in a bounded queue and run by a pool of workers. Results are sent back as soon as each job completes,
+ * which might not be the order in which jobs were submitted: each job carries an identifier chosen by the client.
+ *
+ * Requests (one per line):
+ * <pre>
+ *   SOLVE  &lt;id&gt; &lt;solver&gt; &lt;timeout-ms&gt; &lt;instance-path&gt;
+ *   INLINE &lt;id&gt; &lt;solver&gt; &lt;timeout-ms&gt; &lt;instance-name&gt; &lt;num-lines&gt;
+ *          followed by num-lines lines in the format of the files of the instances/ folder
+ * </pre>
+ * Responses (one per line):
+ * <pre>
+ *   RESULT   &lt;id&gt; &lt;instance-name&gt; &lt;solver&gt; &lt;makespan&gt; &lt;runtime-ms&gt; &lt;exit-cause&gt;
+ *   ERROR    &lt;id&gt; &lt;message&gt;
+ *   REJECTED &lt;id&gt;          (the queue is full, the job should be submitted again later)
+ * </pre>
+ * An INLINE request with a malformed header is answered with an error after skipping its num-lines lines. If
+ * num-lines itself cannot be read, the server stops reading requests from the connection.
+ *
+ * When the client closes its output stream, the server sends the results of all pending jobs of the connection
+ * and then closes it. If the connection is lost instead, the jobs of the connection are cancelled: running solvers
+ * stop at their next check of the cancellation token.
+ */
+public final class SolverServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private final SolutionStore store;
+    /** Jobs submitted and not completed yet, cancelled when the server is closed. */
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+
+    /** Creates a new server on the loopback interface and starts accepting connections.
+     *
+     * @param port Port on which to listen, 0 to pick any free port (see <code>port()</code>).
+     * @param numWorkers Number of jobs that are solved concurrently.
+     * @param queueCapacity Maximum number of jobs waiting for a worker. Further jobs are rejected.
+     */
+    public SolverServer(int port, int numWorkers, int queueCapacity) throws IOException {
+        this(port, numWorkers, queueCapacity, null);
+    }
+
+    /** Creates a new server on the loopback interface and starts accepting connections.
+     *
+     * @param port Port on which to listen, 0 to pick any free port (see <code>port()</code>).
+     * @param numWorkers Number of jobs that are solved concurrently.
+     * @param queueCapacity Maximum number of jobs waiting for a worker. Further jobs are rejected.
+     * @param store If not null, local search solvers start from the solution of the instance in this store, and
+     *              the store is updated whenever a job beats it.
+     */
+    public SolverServer(int port, int numWorkers, int queueCapacity, SolutionStore store) throws IOException {
+        this.store = store;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = new ThreadPoolExecutor(numWorkers, numWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("solver-worker"));
+        this.connections = Executors.newCachedThreadPool(daemonThreads("solver-connection"));
+        this.acceptor = daemonThreads("solver-acceptor").newThread(this::acceptLoop);
+        this.acceptor.start();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Port on which the server is listening. */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Blocks until the server is closed. */
+    public void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    private void acceptLoop() {
+        while(!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                // the server socket was closed
+            }
+        }
+    }
+
+    /** Reads the requests of a client until it closes its output stream. */
+    private void handle(Socket socket) {
+        List<Future<?>> pending = new ArrayList<>();
+        // jobs of this connection, written by the reader and read by the workers whose response could not be sent
+        List<Job> connectionJobs = new CopyOnWriteArrayList<>();
+        try(socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.isBlank())
+                    continue;
+                String[] words = line.trim().split("\\s+");
+                String id = words.length > 1 ? words[1] : "-";
+                try {
+                    Job job = parse(words, in);
+                    pending.add(submit(job, out, connectionJobs));
+                } catch (RejectedExecutionException e) {
+                    respond(out, "REJECTED " + id);
+                } catch (LostSyncException e) {
+                    // the next request cannot be found in the input: stop reading, but still deliver pending results
+                    respond(out, "ERROR " + id + " " + e.getMessage());
+                    break;
+                } catch (RuntimeException | IOException e) {
+                    respond(out, "ERROR " + id + " " + e);
+                }
+            }
+            // client is done sending jobs: wait for all of them before closing the connection
+            for(Future<?> f : pending) {
+                f.get();
+            }
+        } catch (Exception e) {
+            // connection lost, the remaining results cannot be delivered
+            pending.forEach(f -> f.cancel(false));
+            for(Job job : connectionJobs) {
+                job.cancel();
+                jobs.remove(job);
+            }
+        }
+    }
+
+    /** Queues a job whose response is written to <code>out</code>. If it cannot be written, all the jobs of the
+     * connection are cancelled. */
+    private Future<?> submit(Job job, BufferedWriter out, List<Job> connectionJobs) {
+        jobs.add(job);
+        try {
+            Future<?> future = workers.submit(() -> {
+                try {
+                    respond(out, job.run(store));
+                } catch (UncheckedIOException e) {
+                    // the client is gone: there is no point in solving its other jobs
+                    connectionJobs.forEach(Job::cancel);
+                    throw e;
+                } finally {
+                    jobs.remove(job);
+                }
+            });
+            connectionJobs.add(job);
+            return future;
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job);
+            throw e;
+        }
+    }
+
+    /** Parses a request, reading the inline instance from the input if needed. */
+    private static Job parse(String[] words, BufferedReader in) throws IOException {
+        switch (words[0]) {
+            case "SOLVE": {
+                if(words.length != 5)
+                    throw new IllegalArgumentException("expected: SOLVE <id> <solver> <timeout-ms> <instance-path>");
+                Instance instance = Instance.fromFile(Paths.get(words[4]));
+                return new Job(words[1], words[2], Long.parseLong(words[3]), instance);
+            }
+            case "INLINE": {
+                // the lines of the instance follow even if the header is malformed: they must be consumed so that
+                // they are not read as requests
+                int numLines;
+                try {
+                    numLines = Integer.parseInt(words[words.length - 1]);
+                } catch (NumberFormatException e) {
+                    numLines = -1;
+                }
+                if(numLines < 0)
+                    throw new LostSyncException("invalid number of lines in INLINE request, closing the connection");
+                if(words.length != 6) {
+                    for(int i = 0; i < numLines && in.readLine() != null; i++) {
+                        // skip the lines of the instance
+                    }
+                    throw new IllegalArgumentException("expected: INLINE <id> <solver> <timeout-ms> <name> <num-lines>");
+                }
+                List<String> lines = new ArrayList<>();
+                for(int i = 0; i < numLines; i++) {
+                    String l = in.readLine();
+                    if(l == null)
+                        throw new IOException("unexpected end of inline instance");
+                    lines.add(l);
+                }
+                Instance instance = Instance.fromLines(words[4], lines);
+                return new Job(words[1], words[2], Long.parseLong(words[3]), instance);
+            }
+            default:
+                throw new IllegalArgumentException("unknown request " + words[0]);
+        }
+    }
+
+    /** Thrown when the start of the next request cannot be located in the input of a connection. */
+    private static final class LostSyncException extends IOException {
+        LostSyncException(String message) {
+            super(message);
+        }
+    }
+
+    /** Writes a response line. Responses of concurrent jobs on the same connection are serialized. */
+    private static void respond(BufferedWriter out, String response) {
+        synchronized (out) {
+            try {
+                out.write(response);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** A request to solve an instance with a given solver. */
+    private static final class Job {
+        final String id;
+        final String solverName;
+        final long timeout;
+        final Instance instance;
+        final CancellationToken token = new CancellationToken();
+
+        Job(String id, String solverName, long timeout, Instance instance) {
+            this.id = id;
+            this.solverName = solverName;
+            this.timeout = timeout;
+            this.instance = instance;
+        }
+
+        /** Solves the instance and returns the response line. The timeout starts when a worker picks the job.
+         *
+         * @param store If not null, store of the best known solutions, from which local search solvers start.
+         */
+        String run(SolutionStore store) {
+            try {
+                Solver solver = Solver.getSolver(solverName, store);
+                long start = System.currentTimeMillis();
+                Result result = solver.solve(instance, start + timeout, IncumbentListener.NONE, token);
+                long runtime = System.currentTimeMillis() - start;
+                if(result.schedule.isEmpty())
+                    return "ERROR " + id + " solver returned no schedule";
+                Optional<ScheduleValidator.Violation> violation = ScheduleValidator.check(result.schedule.get());
+                if(violation.isPresent())
+                    return "ERROR " + id + " solver returned an invalid schedule: " + violation.get();
+                Schedule schedule = result.schedule.get();
+                if(store != null) {
+                    // remember the solution for the next jobs if it beats the stored one
+                    store.update(new ResourceOrder(schedule), schedule.makespan());
+                }
+                return String.format("RESULT %s %s %s %d %d %s", id, instance.name, solverName,
+                        schedule.makespan(), runtime, result.cause);
+            } catch (RuntimeException | IOException e) {
+                return "ERROR " + id + " " + e;
+            }
+        }
+
+        /** Stops the solver of this job, which then answers with its best solution so far. */
+        void cancel() {
+            token.cancel();
+        }
+    }
+
+    /** Stops accepting connections and jobs. Running jobs are cancelled. */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        jobs.forEach(Job::cancel);
+        workers.shutdownNow();
+        connections.shutdownNow();
+    }
+}
@@ -3,13 +3,18 @@ package jobshop.solvers;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.encodings.JobNumbers;
+import jobshop.encodings.Schedule;
+
+import java.util.Optional;
 
 /**
  * A very naïve solver that first schedules all first tasks, then all second tasks, ...
  **/
 public class BasicSolver implements Solver {
     @Override
-    public Result solve(Instance instance, long deadline) {
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        if(token.isCancelled())
+            return new Result(instance, Optional.empty(), Result.ExitCause.Cancelled);
 
         JobNumbers sol = new JobNumbers(instance);
         for(int t = 0 ; t<instance.numTasks ; t++) {
@@ -18,6 +23,8 @@ public class BasicSolver implements Solver {
             }
         }
 
-        return new Result(instance, sol.toSchedule(), Result.ExitCause.Blocked);
+        Optional<Schedule> schedule = sol.toSchedule();
+        listener.newIncumbent(schedule.get(), schedule.get().makespan());
+        return new Result(instance, schedule, Result.ExitCause.Blocked);
     }
 }
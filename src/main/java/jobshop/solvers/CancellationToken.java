@@ -0,0 +1,43 @@
+package jobshop.solvers;
+
+import java.util.concurrent.locks.LockSupport;
+
+/** A token allowing to stop a solver before its deadline.
+ *
+ * The solver regularly checks the token and, once it is cancelled, returns its best solution as soon as possible
+ * with the <code>Cancelled</code> exit cause. A token can be cancelled from any thread and cannot be reset.
+ *
+ * Checking the token is also the point at which solvers running on a virtual thread give their carrier thread to
+ * other virtual threads: a virtual thread is never preempted, so a solver loop that never blocks would otherwise
+ * keep its carrier for its whole run.
+ */
+public final class CancellationToken {
+
+    /** Maximal time a virtual thread checking the token runs without yielding, in nanoseconds. */
+    static final long TIME_SLICE_NANOS = 1_000_000;
+
+    private volatile boolean cancelled = false;
+
+    // time at which a virtual thread checking the token should yield. The token is normally checked by a single
+    // thread: concurrent checks only make the yields less regular.
+    private long nextYield = System.nanoTime() + TIME_SLICE_NANOS;
+
+    /** Requests all solvers using this token to stop. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** True if <code>cancel()</code> has been called. On a virtual thread, yields once per time slice. */
+    public boolean isCancelled() {
+        if(Thread.currentThread().isVirtual()) {
+            long now = System.nanoTime();
+            if(now - nextYield >= 0) {
+                nextYield = now + TIME_SLICE_NANOS;
+                // unlike Thread.yield(), which may resume the same virtual thread at once when there is a single
+                // carrier, parking puts it behind the virtual threads that are already waiting
+                LockSupport.parkNanos(1);
+            }
+        }
+        return cancelled;
+    }
+}
@@ -2,69 +2,152 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.SolverMetrics;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Schedule;
-import jobshop.solvers.neighborhood.Neighbor;
+import jobshop.jfr.Recordings;
+import jobshop.jfr.SolverIterationEvent;
+import jobshop.solvers.neighborhood.MoveBuffer;
 import jobshop.solvers.neighborhood.Neighborhood;
-import jobshop.solvers.neighborhood.Nowicki;
 
 import java.util.List;
+import java.util.Random;
 
-/** An empty shell to implement a descent solver. */
-public class DescentSolver implements Solver {
+/** A descent solver: moves to an improving neighbor of the current solution until none is left. */
+public class DescentSolver implements Solver, LocalSearch {
+
+    /** How the neighbor to move to is selected at each iteration. */
+    public enum Strategy {
+        /** Evaluates all neighbors and moves to the best one (steepest descent). */
+        Steepest,
+        /** Evaluates the neighbors in a random order and moves to the first one that improves the current solution. */
+        FirstImprovement
+    }
 
     final Neighborhood<ResourceOrder> neighborhood;
     final Solver baseSolver;
-    private static int neighborsexplored=0;
-    /** Creates a new descent solver with a given neighborhood and a solver for the initial solution.
+    final Strategy strategy;
+    final long seed;
+
+    /** Creates a new steepest descent solver with a given neighborhood and a solver for the initial solution.
      *
      * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
      * @param baseSolver A solver to provide the initial solution.
      */
     public DescentSolver(Neighborhood<ResourceOrder> neighborhood, Solver baseSolver) {
+        this(neighborhood, baseSolver, Strategy.Steepest, 0);
+    }
+
+    /** Creates a new descent solver.
+     *
+     * @param neighborhood Neighborhood object that should be used to generates neighbor solutions to the current candidate.
+     * @param baseSolver A solver to provide the initial solution, which may be null if the solver is only used as a
+     *                   stage of a pipeline.
+     * @param strategy Selection of the neighbor to move to at each iteration.
+     * @param seed Seed of the random order in which neighbors are evaluated with Strategy.FirstImprovement.
+     */
+    public DescentSolver(Neighborhood<ResourceOrder> neighborhood, Solver baseSolver, Strategy strategy, long seed) {
         this.neighborhood = neighborhood;
         this.baseSolver = baseSolver;
+        this.strategy = strategy;
+        this.seed = seed;
     }
-    public int getNeighborsexplored(){
-        return neighborsexplored;
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        return new SolverPipeline(baseSolver,1,List.of(new SolverPipeline.Stage(this,1))).solve(instance,deadline,listener,token);
     }
 
     @Override
-    public Result solve(Instance instance, long deadline) {
-        Schedule base=baseSolver.solve(instance,deadline).schedule.get();
-        ResourceOrder order= new ResourceOrder(base);
+    public Result.ExitCause improve(ResourceOrder order, int makespan, long deadline, SearchContext context) {
+        Random random=new Random(seed);
+        //à chaque amélioration, la solution courante est la meilleure trouvée
+        descend(order,makespan,random,context.cache(),context.metrics,deadline,context.token,
+                (iteration,span)->context.improved(order,span,iteration));
+
+        //on s'arrête au plus vite si la recherche est annulée ou si le temps est écoulé
+        if (context.token.isCancelled()) {
+            return Result.ExitCause.Cancelled;
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            return Result.ExitCause.Timeout;
+        }
+        //aucun voisin n'améliore la solution : on est dans un minimum local
+        return Result.ExitCause.Blocked;
+    }
+
+    /** Called by <code>descend</code> each time it moves to an improving neighbor. */
+    @FunctionalInterface
+    interface Improvement {
+        /** @param iteration Number of iterations of the descent so far.
+         *  @param makespan Makespan of the new current solution. */
+        void improved(long iteration, int makespan);
+    }
 
-        int bestspan=Integer.MAX_VALUE,currentspan,initialspan=base.makespan();
-        int i=0;
-        Neighbor<ResourceOrder> bestneigh=null,prevbestneigh=null;
-        do {
+    /** Moves the given solution to a local minimum of the neighborhood, or until the deadline or cancellation.
+     *
+     * @param order Solution from which to start the descent, modified in place.
+     * @param makespan Makespan of the solution.
+     * @param random Source of the random order of the neighbors with Strategy.FirstImprovement.
+     * @param cache Cache used to evaluate the neighbors, which records its evaluations in the metrics.
+     * @param onImprovement Notified each time the descent moves to a neighbor.
+     * @return The makespan of the final solution.
+     */
+    int descend(ResourceOrder order, int makespan, Random random, EvaluationCache cache, SolverMetrics metrics,
+                long deadline, CancellationToken token, Improvement onImprovement) {
+        //makespan de la solution courante, qui est toujours la meilleure trouvée par la descente
+        int currentspan=makespan;
+        long i=0;
+        //les voisins sont écrits dans un tampon réutilisé à chaque itération : la boucle n'alloue rien
+        MoveBuffer neigh=new MoveBuffer();
+        neighborhood.searchStarted(deadline);
+        while (!token.isCancelled() && System.currentTimeMillis() < deadline) {
+            SolverIterationEvent event=Recordings.enabled() ? new SolverIterationEvent() : null;
+            if (event!=null) {
+                event.begin();
+            }
             //on initialise les voisins
-            List<Neighbor<ResourceOrder>> neigh=neighborhood.generateNeighbors(order);
-            //on trouve le meilleur
-            prevbestneigh=bestneigh;
+            neighborhood.generateMoves(order,neigh);
+            metrics.generated(neigh.size());
+            if (strategy==Strategy.FirstImprovement) {
+                neigh.shuffle(random);
+            }
 
-            //on iter sur les voisins
-            for (Neighbor<ResourceOrder> currentneighbor : neigh) {
-                neighborsexplored++;
-                currentneighbor.applyOn(order);
-                //il faut que le chemin soit valable
-                if (!order.toSchedule().isEmpty()) {
-                    currentspan = order.toSchedule().get().makespan();
-                    if (currentspan < bestspan) {
-                        bestspan = currentspan;
-                        bestneigh = currentneighbor;
+            //on itère sur les voisins pour trouver le meilleur (ou le premier qui améliore)
+            int bestneigh=-1;
+            int bestspan=currentspan;
+            for (int k=0;k<neigh.size();k++) {
+                neighborhood.applyMove(order,neigh,k);
+                //il faut que le chemin soit valable, les voisins déjà évalués ne sont pas décodés à nouveau
+                int span = cache.makespan(order, order.zobristHash());
+                neighborhood.undoMove(order,neigh,k);
+                neighborhood.moveEvaluated(order,neigh,k,span);
+                if (span != EvaluationCache.INFEASIBLE && span < bestspan) {
+                    bestspan = span;
+                    bestneigh = k;
+                    if (strategy==Strategy.FirstImprovement) {
+                        break;
                     }
-                    currentneighbor.undoApplyOn(order);
                 }
             }
-            if (bestspan < initialspan) {
-                bestneigh.applyOn(order);
-            }
             i++;
-        }while(prevbestneigh!=bestneigh & i<deadline);
-
-        Result result= new Result(instance,order.toSchedule(),Result.ExitCause.ProvedOptimal);
-        return result;
+            metrics.iteration();
+            if (event!=null && event.shouldCommit()) {
+                event.solver="descent";
+                event.instance=order.instance.name;
+                event.iteration=i;
+                event.neighbors=neigh.size();
+                event.makespan=bestspan;
+                event.commit();
+            }
+            //aucun voisin n'améliore la solution : on est dans un minimum local
+            if (bestneigh<0) {
+                break;
+            }
+            neighborhood.applyMove(order,neigh,bestneigh);
+            currentspan=bestspan;
+            onImprovement.improved(i,currentspan);
+        }
+        return currentspan;
     }
 
 }
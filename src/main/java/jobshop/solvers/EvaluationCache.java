@@ -0,0 +1,152 @@
+package jobshop.solvers;
+
+import jobshop.SolverMetrics;
+import jobshop.encodings.Encoding;
+import jobshop.encodings.Schedule;
+
+import java.util.Arrays;
+
+/** A bounded cache associating the hash of a solution to its makespan.
+ *
+ * It allows solvers to skip decoding solutions that they have already evaluated.
+ * The cache is set-associative: a hash can only be stored in the {@value #WAYS} slots of its set. When a set is full,
+ * the entry to evict is selected with the clock (second chance) algorithm, which approximates LRU.
+ *
+ * This class is not thread-safe: each solver should use its own cache.
+ */
+public final class EvaluationCache {
+
+    /** Value returned by <code>get</code> for a solution that is not in the cache. */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    /** Makespan stored for solutions that cannot be converted into a schedule. */
+    public static final int INFEASIBLE = Encoding.INFEASIBLE;
+
+    /** Default number of entries of a cache. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Number of slots in each set. */
+    static final int WAYS = 4;
+
+    // hash of the solution stored in each slot
+    private final long[] keys;
+    // makespan of the solution stored in each slot, ABSENT if the slot is empty
+    private final int[] values;
+    // clock bit of each slot: set on each access, cleared when the clock hand passes over the slot
+    private final boolean[] referenced;
+    // for each set, position of the clock hand
+    private final byte[] hands;
+    private final int setMask;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    // metrics in which evaluations and decodes performed by makespan() are recorded
+    private final SolverMetrics metrics;
+
+    // schedule into which makespan() decodes the solutions that are not in the cache, reused across calls
+    private Schedule workspace;
+
+    /** Creates a new cache holding at least the given number of entries (rounded up to a power of two). */
+    public EvaluationCache(int capacity) {
+        this(capacity, new SolverMetrics());
+    }
+
+    /** Creates a new cache that records the evaluations it performs in the given metrics. */
+    public EvaluationCache(int capacity, SolverMetrics metrics) {
+        this.metrics = metrics;
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+        if(sets * WAYS < capacity) sets *= 2;
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.values = new int[sets * WAYS];
+        this.referenced = new boolean[sets * WAYS];
+        this.hands = new byte[sets];
+        Arrays.fill(values, ABSENT);
+    }
+
+    /** Index of the first slot of the set in which the hash should be stored. */
+    private int setOf(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & setMask) * WAYS;
+    }
+
+    /** Returns the makespan associated to the hash, or ABSENT if it is not in the cache. */
+    public int get(long hash) {
+        int base = setOf(hash);
+        for(int i = base; i < base + WAYS; i++) {
+            if(values[i] != ABSENT && keys[i] == hash) {
+                referenced[i] = true;
+                hits++;
+                return values[i];
+            }
+        }
+        misses++;
+        return ABSENT;
+    }
+
+    /** Returns true if the hash is in the cache. Unlike <code>get</code>, this does not count as an access. */
+    public boolean contains(long hash) {
+        int base = setOf(hash);
+        for(int i = base; i < base + WAYS; i++) {
+            if(values[i] != ABSENT && keys[i] == hash)
+                return true;
+        }
+        return false;
+    }
+
+    /** Associates the makespan to the hash, evicting another entry of the same set if needed. */
+    public void put(long hash, int makespan) {
+        assert makespan != ABSENT;
+        int base = setOf(hash);
+        for(int i = base; i < base + WAYS; i++) {
+            if(values[i] == ABSENT || keys[i] == hash) {
+                keys[i] = hash;
+                values[i] = makespan;
+                return;
+            }
+        }
+        // set is full: advance the clock hand until finding a slot that was not recently accessed
+        int set = base / WAYS;
+        while(referenced[base + hands[set]]) {
+            referenced[base + hands[set]] = false;
+            hands[set] = (byte) ((hands[set] + 1) % WAYS);
+        }
+        int victim = base + hands[set];
+        keys[victim] = hash;
+        values[victim] = makespan;
+        hands[set] = (byte) ((hands[set] + 1) % WAYS);
+    }
+
+    /** Returns the makespan of the solution, only decoding it if its hash is not already in the cache.
+     *
+     * Solutions are decoded into a schedule owned by the cache: an evaluation never allocates memory.
+     *
+     * @param solution Solution to evaluate.
+     * @param hash Hash of the solution (e.g. <code>ResourceOrder.zobristHash()</code>).
+     * @return The makespan of the solution or INFEASIBLE if it has no valid schedule.
+     */
+    public int makespan(Encoding solution, long hash) {
+        metrics.evaluated();
+        int makespan = get(hash);
+        if(makespan == ABSENT) {
+            metrics.decoded();
+            if(workspace == null || workspace.instance != solution.instance)
+                workspace = new Schedule(solution.instance);
+            makespan = solution.decodeInto(workspace);
+            put(hash, makespan);
+        }
+        if(makespan == INFEASIBLE)
+            metrics.infeasible();
+        return makespan;
+    }
+
+    /** Number of lookups that found their solution in the cache. */
+    public long hits() {
+        return hits;
+    }
+
+    /** Number of lookups that did not find their solution in the cache. */
+    public long misses() {
+        return misses;
+    }
+}
@@ -0,0 +1,175 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+
+import java.util.Optional;
+import java.util.Random;
+
+/** Giffler and Thompson's algorithm, which builds active or non-delay schedules.
+ *
+ * At each step, among the next unscheduled task of each job, the algorithm selects a machine and its conflict set:
+ * <ul>
+ *   <li>Active: the machine m* of the task with the earliest completion time C*. The conflict set contains the tasks
+ *       on m* that can start before C*: scheduling any other task there would delay the task finishing at C*.</li>
+ *   <li>Non-delay: the machine m* of the task with the earliest start time S*. The conflict set contains the tasks on
+ *       m* that can start at S*: a machine is never left idle while a task could run on it.</li>
+ * </ul>
+ * A priority rule then picks the task of the conflict set to schedule next, ties being broken at random. Active
+ * schedules include an optimal one, while non-delay schedules are usually better on average but might all miss it.
+ *
+ * The earliest start time of the next task of each job is maintained incrementally: scheduling a task only changes
+ * the next task of its job and the release time of its machine. Each step is O(n) and building a solution of n jobs
+ * and m machines is O(n²m).
+ *
+ * Besides being a solver, <code>build</code> can be used by other solvers as a (randomized) construction step.
+ *
+ * B. Giffler and G. L. Thompson, "Algorithms for solving production-scheduling problems", Operations Research, 1960.
+ */
+public class GifflerThompson implements Solver {
+
+    /** Kind of schedules that are built. */
+    public enum Variant {
+        Active, NonDelay
+    }
+
+    /** Priority rules selecting a task in the conflict set. */
+    public enum Rule {
+        /** Shortest processing time. */
+        SPT,
+        /** Longest processing time. */
+        LPT,
+        /** Shortest remaining processing time of the job, including the task. */
+        SRPT,
+        /** Longest remaining processing time of the job, including the task. */
+        LRPT,
+        /** Any task of the conflict set, chosen uniformly at random. */
+        Random
+    }
+
+    final Variant variant;
+    final Rule rule;
+    final long seed;
+
+    /** Creates a new solver.
+     *
+     * @param variant Kind of schedules to build.
+     * @param rule Priority rule selecting the task to schedule in the conflict set.
+     * @param seed Seed of the random tie-breaks (and of the choices of Rule.Random).
+     */
+    public GifflerThompson(Variant variant, Rule rule, long seed) {
+        this.variant = variant;
+        this.rule = rule;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        // the construction is fast: like the greedy solver, it always completes to provide a solution
+        if(token.isCancelled())
+            return new Result(instance, Optional.empty(), Result.ExitCause.Cancelled);
+        Optional<Schedule> schedule = build(instance, new Random(seed)).toSchedule();
+        listener.newIncumbent(schedule.get(), schedule.get().makespan());
+        return new Result(instance, schedule, Result.ExitCause.Blocked);
+    }
+
+    /** Builds a new solution of the instance.
+     *
+     * @param random Source of the random tie-breaks (and of the choices of Rule.Random).
+     * @return A resource order whose schedule is active (or non-delay).
+     */
+    public ResourceOrder build(Instance instance, Random random) {
+        final int numJobs = instance.numJobs;
+        ResourceOrder order = new ResourceOrder(instance);
+
+        // next unscheduled task of each job, numTasks if the job is complete
+        int[] nextTask = new int[numJobs];
+        // for each job, end time of its last scheduled task
+        int[] jobRelease = new int[numJobs];
+        // for each machine, end time of its last scheduled task
+        int[] machineRelease = new int[instance.numMachines];
+        // for each job, earliest start time of its next task (maintained incrementally)
+        int[] est = new int[numJobs];
+        // for each job, total duration of its unscheduled tasks
+        int[] remaining = new int[numJobs];
+        for(int j = 0; j < numJobs; j++) {
+            for(int t = 0; t < instance.numTasks; t++)
+                remaining[j] += instance.duration(j, t);
+        }
+        // jobs of the conflict set
+        int[] conflict = new int[numJobs];
+
+        for(int step = 0; step < numJobs * instance.numTasks; step++) {
+            // select the machine: task with the earliest completion (active) or start (non-delay)
+            int selectedJob = -1;
+            int bound = Integer.MAX_VALUE;
+            for(int j = 0; j < numJobs; j++) {
+                if(nextTask[j] == instance.numTasks)
+                    continue;
+                int time = variant == Variant.Active ? est[j] + instance.duration(j, nextTask[j]) : est[j];
+                if(time < bound) {
+                    bound = time;
+                    selectedJob = j;
+                }
+            }
+            int machine = instance.machine(selectedJob, nextTask[selectedJob]);
+
+            // conflict set: tasks on the machine starting before C* (active) or at S* (non-delay)
+            int size = 0;
+            for(int j = 0; j < numJobs; j++) {
+                if(nextTask[j] == instance.numTasks || instance.machine(j, nextTask[j]) != machine)
+                    continue;
+                if(variant == Variant.Active ? est[j] < bound : est[j] == bound)
+                    conflict[size++] = j;
+            }
+
+            int job = select(instance, conflict, size, nextTask, remaining, random);
+            int task = nextTask[job];
+            int end = est[job] + instance.duration(job, task);
+            order.addToMachine(machine, job);
+
+            // update the state of the job and of the machine
+            jobRelease[job] = end;
+            machineRelease[machine] = end;
+            remaining[job] -= instance.duration(job, task);
+            nextTask[job]++;
+            // only the next task of the job and the tasks waiting for the machine have a new earliest start time
+            for(int j = 0; j < numJobs; j++) {
+                if(nextTask[j] < instance.numTasks && (j == job || instance.machine(j, nextTask[j]) == machine))
+                    est[j] = Math.max(jobRelease[j], machineRelease[instance.machine(j, nextTask[j])]);
+            }
+        }
+        return order;
+    }
+
+    /** Selects a job of the conflict set with the priority rule, breaking ties uniformly at random. */
+    private int select(Instance instance, int[] conflict, int size, int[] nextTask, int[] remaining, Random random) {
+        if(rule == Rule.Random)
+            return conflict[random.nextInt(size)];
+        int selected = -1;
+        int bestPriority = Integer.MIN_VALUE;
+        int ties = 0;
+        for(int i = 0; i < size; i++) {
+            int j = conflict[i];
+            int priority;
+            switch (rule) {
+                case SPT: priority = -instance.duration(j, nextTask[j]); break;
+                case LPT: priority = instance.duration(j, nextTask[j]); break;
+                case SRPT: priority = -remaining[j]; break;
+                case LRPT: priority = remaining[j]; break;
+                default: throw new IllegalStateException("unexpected rule " + rule);
+            }
+            if(priority > bestPriority) {
+                bestPriority = priority;
+                selected = j;
+                ties = 1;
+            } else if(priority == bestPriority && random.nextInt(++ties) == 0) {
+                // reservoir sampling: each of the tied jobs is selected with the same probability
+                selected = j;
+            }
+        }
+        return selected;
+    }
+}
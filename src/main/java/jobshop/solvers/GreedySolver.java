@@ -73,8 +73,7 @@ public class GreedySolver implements Solver {
     }
 
     @Override
-    public Result solve(Instance instance, long deadline) {
-        long time=System.currentTimeMillis();
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
         ResourceOrder greedyOrder = new ResourceOrder(instance);
         int numJobs= instance.numJobs;
         int numMachines=instance.numMachines;
@@ -98,10 +97,10 @@ public class GreedySolver implements Solver {
             taches.add(new Task(j,0));
         }
         while (!taches.isEmpty()) {
-            //si on timeout
-            if (System.currentTimeMillis()-time>deadline){
-                Result result= new Result(instance,greedyOrder.toSchedule(),Result.ExitCause.Timeout);
-                return result;
+            //si la recherche est annulée : une solution partielle ne peut pas être convertie en schedule
+            //la construction est rapide, on ne s'arrête pas à la deadline pour toujours fournir une solution
+            if (token.isCancelled()){
+                return new Result(instance,Optional.empty(),Result.ExitCause.Cancelled);
             }
             Task addTask=null;
 
@@ -134,7 +133,9 @@ public class GreedySolver implements Solver {
             }
         }
         
-        Result result= new Result(instance,greedyOrder.toSchedule(),Result.ExitCause.Blocked);
+        Optional<Schedule> schedule=greedyOrder.toSchedule();
+        listener.newIncumbent(schedule.get(),schedule.get().makespan());
+        Result result= new Result(instance,schedule,Result.ExitCause.Blocked);
 
         return result;
     }
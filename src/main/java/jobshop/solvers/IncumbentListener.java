@@ -0,0 +1,22 @@
+package jobshop.solvers;
+
+import jobshop.encodings.Schedule;
+
+/** Callback notified each time a solver finds a new best solution.
+ *
+ * It is called from the thread running the solver, which is blocked until the callback returns: implementations
+ * should be fast and, if they share state with other threads, thread-safe.
+ */
+@FunctionalInterface
+public interface IncumbentListener {
+
+    /** A listener that ignores all notifications. */
+    IncumbentListener NONE = (schedule, makespan) -> {};
+
+    /** Called when the solver has found a new best solution.
+     *
+     * @param schedule Schedule of the new best solution. It is not modified by the solver afterwards.
+     * @param makespan Makespan of the schedule.
+     */
+    void newIncumbent(Schedule schedule, int makespan);
+}
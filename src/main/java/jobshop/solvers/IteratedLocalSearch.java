@@ -0,0 +1,94 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.neighborhood.MoveBuffer;
+import jobshop.solvers.neighborhood.Nowicki;
+
+import java.util.List;
+import java.util.Random;
+
+/** An iterated local search: a descent that escapes its local minima by perturbing them, until the deadline.
+ *
+ * Each round applies k random swaps of adjacent tasks in the blocks of the critical path to the current solution
+ * (such swaps never create a cycle), and then runs a first-improvement descent from there. The new local minimum
+ * replaces the current solution if its makespan is at most (1 + threshold) times the current one: with a threshold
+ * of 0, only solutions that are at least as good are accepted.
+ */
+public class IteratedLocalSearch implements Solver, LocalSearch {
+
+    final Solver baseSolver;
+    final int perturbation;
+    final double threshold;
+    final long seed;
+
+    /** Creates a new iterated local search.
+     *
+     * @param baseSolver A solver to provide the initial solution, which may be null if the solver is only used as a
+     *                   stage of a pipeline.
+     * @param perturbation Number of random swaps (k) applied to a local minimum before the next descent.
+     * @param threshold Relative degradation of the makespan accepted when moving to a new local minimum.
+     * @param seed Seed of the perturbations and of the order of the neighbors in the descent.
+     */
+    public IteratedLocalSearch(Solver baseSolver, int perturbation, double threshold, long seed) {
+        this.baseSolver = baseSolver;
+        this.perturbation = perturbation;
+        this.threshold = threshold;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        return new SolverPipeline(baseSolver,1,List.of(new SolverPipeline.Stage(this,1))).solve(instance,deadline,listener,token);
+    }
+
+    @Override
+    public Result.ExitCause improve(ResourceOrder order, int makespan, long deadline, SearchContext context) {
+        SolverMetrics metrics=context.metrics;
+        Random random=new Random(seed);
+        EvaluationCache cache=context.cache();
+        Nowicki nowicki=new Nowicki();
+        DescentSolver descent=new DescentSolver(nowicki,null,DescentSolver.Strategy.FirstImprovement,seed);
+
+        //solution courante (un minimum local), order garde la meilleure solution trouvée
+        ResourceOrder current=order.copy();
+        int currentspan=descent.descend(current,makespan,random,cache,metrics,deadline,context.token,(i,span)->{});
+        long round=0;
+        if (context.improved(current,currentspan,round)) {
+            order.copyFrom(current);
+        }
+        //la solution perturbée et les swaps réutilisent la même mémoire à chaque tour
+        ResourceOrder candidate=current.copy();
+        MoveBuffer swaps=new MoveBuffer();
+
+        while (!context.stopped(deadline)) {
+            round++;
+            //perturbation : k échanges aléatoires sur le chemin critique, toujours réalisables
+            candidate.copyFrom(current);
+            for (int k=0;k<perturbation;k++) {
+                nowicki.generateMoves(candidate,swaps);
+                metrics.generated(swaps.size());
+                if (swaps.size()==0) {
+                    break;
+                }
+                nowicki.applyMove(candidate,swaps,random.nextInt(swaps.size()));
+            }
+            int span=cache.makespan(candidate,candidate.zobristHash());
+            span=descent.descend(candidate,span,random,cache,metrics,deadline,context.token,(i,s)->{});
+
+            if (context.improved(candidate,span,round)) {
+                order.copyFrom(candidate);
+            }
+            //critère d'acceptation : meilleur ou égal, à un seuil près
+            if (span<=currentspan*(1+threshold)) {
+                ResourceOrder previous=current;
+                current=candidate;
+                candidate=previous;
+                currentspan=span;
+            }
+        }
+        return context.token.isCancelled() ? Result.ExitCause.Cancelled : Result.ExitCause.Timeout;
+    }
+}
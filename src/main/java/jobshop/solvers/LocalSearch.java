@@ -0,0 +1,23 @@
+package jobshop.solvers;
+
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+
+/** A search that improves a given solution in place.
+ *
+ * Local searches are the stages that follow the construction of a solution in a SolverPipeline: each stage starts
+ * from the solution left by the previous one, without converting it back and forth through a Schedule.
+ */
+public interface LocalSearch {
+
+    /** Improves the solution until blocked, the deadline is met or the search is cancelled.
+     *
+     * @param order Feasible solution from which to start. On return, it contains the best solution found, which is
+     *              never worse than the initial one.
+     * @param makespan Makespan of the initial solution.
+     * @param deadline Absolute time, in milliseconds, at which the stage should have returned.
+     * @param context State of the whole search, to which the stage reports the solutions it moves to.
+     * @return Why the stage stopped.
+     */
+    Result.ExitCause improve(ResourceOrder order, int makespan, long deadline, SearchContext context);
+}
@@ -2,19 +2,38 @@ package jobshop.solvers;
 
 import jobshop.*;
 import jobshop.encodings.JobNumbers;
+import jobshop.encodings.JobNumbersBatch;
 import jobshop.encodings.Schedule;
 
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /** A solver that generates random solutions until a deadline is met.
  *  Then returns the best solution that was generated.
  */
 public class RandomSolver implements Solver {
 
+    /** Number of random solutions generated and evaluated together (see JobNumbersBatch). */
+    static final int BATCH_SIZE = 16;
+
+    /** Seed of the random solutions. */
+    final long seed;
+
+    /** Creates a new random solver whose solutions are drawn from the given seed. */
+    public RandomSolver(long seed) {
+        this.seed = seed;
+    }
+
+    /** Creates a new random solver with seed 0. */
+    public RandomSolver() {
+        this(0);
+    }
+
     @Override
-    public Result solve(Instance instance, long deadline) {
-        Random generator = new Random(0);
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        SplittableRandom generator = new SplittableRandom(seed);
+        Trace trace = new Trace();
+        SolverMetrics metrics = new SolverMetrics();
 
         JobNumbers sol = new JobNumbers(instance);
 
@@ -26,24 +45,58 @@ public class RandomSolver implements Solver {
         }
         // best solution is currently the initial one
         Optional<Schedule> best = sol.toSchedule();
+        metrics.decoded();
+        trace.improved(0, best.get().makespan());
+        metrics.improved();
+        listener.newIncumbent(best.get(), best.get().makespan());
+
+        // solutions that have already been generated, they do not need to be evaluated again
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY);
+        // candidates are evaluated by batches, all at once
+        JobNumbersBatch batch = new JobNumbersBatch(instance, BATCH_SIZE);
+        long[] hashes = new long[BATCH_SIZE];
 
         // while we have some time left, generate new solutions by shuffling the current one
+        long iteration = 0;
         while(deadline - System.currentTimeMillis() > 1) {
-            shuffleArray(sol.jobs, generator);
-            Optional<Schedule> candidate = sol.toSchedule();
-            if(candidate.isPresent()) {
-                if (best.isEmpty() || candidate.get().makespan() < best.get().makespan()) {
-                    best = candidate;
-                }
+            if(token.isCancelled())
+                return new Result(instance, best, Result.ExitCause.Cancelled, trace, metrics);
+            batch.clear();
+            for(int i = 0; i < BATCH_SIZE; i++) {
+                iteration++;
+                metrics.iteration();
+                shuffleArray(sol.jobs, generator);
+                metrics.generated(1);
+                metrics.evaluated();
+                long hash = sol.zobristHash();
+                if(cache.get(hash) == EvaluationCache.ABSENT)
+                    hashes[batch.add(sol)] = hash;
+            }
+            int[] makespans = batch.evaluate();
+            int bestLane = -1;
+            for(int lane = 0; lane < batch.size(); lane++) {
+                cache.put(hashes[lane], makespans[lane]);
+                if(makespans[lane] < (bestLane < 0 ? best.get().makespan() : makespans[bestLane]))
+                    bestLane = lane;
+            }
+            if(bestLane >= 0) {
+                // build the schedule of the new best solution
+                JobNumbers improved = new JobNumbers(instance);
+                batch.copyTo(bestLane, improved);
+                best = improved.toSchedule();
+                metrics.decoded();
+                trace.improved(iteration, makespans[bestLane]);
+                metrics.improved();
+                listener.newIncumbent(best.get(), makespans[bestLane]);
             }
         }
 
 
-        return new Result(instance, best, Result.ExitCause.Timeout);
+        return new Result(instance, best, Result.ExitCause.Timeout, trace, metrics);
     }
 
     /** Simple Fisher–Yates array shuffling */
-    private static void shuffleArray(int[] array, Random randomNumberGenerator)
+    private static void shuffleArray(int[] array, SplittableRandom randomNumberGenerator)
     {
         int index;
         for (int i = array.length - 1; i > 0; i--)
@@ -0,0 +1,81 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.Trace;
+import jobshop.encodings.ResourceOrder;
+
+/** State shared by the successive stages of a search on one instance.
+ *
+ * It holds the trace and metrics of the whole search, the listener and cancellation token of the caller, and a cache
+ * of evaluated solutions, so that a stage does not decode again the solutions evaluated by the previous ones.
+ * Stages report each solution they move to with <code>improved()</code>, which only keeps track of new best ones.
+ */
+public final class SearchContext {
+
+    /** Trace of the whole search. */
+    public final Trace trace = new Trace();
+    /** Metrics of the whole search. */
+    public final SolverMetrics metrics = new SolverMetrics();
+    /** Token through which the caller can stop the search. */
+    public final CancellationToken token;
+
+    private final IncumbentListener listener;
+    private EvaluationCache cache;
+    private int bestMakespan = Integer.MAX_VALUE;
+
+    /** Creates the context of a new search starting now. */
+    public SearchContext(IncumbentListener listener, CancellationToken token) {
+        this.listener = listener;
+        this.token = token;
+    }
+
+    /** Cache of the evaluations of the search, created on first use. */
+    EvaluationCache cache() {
+        if (cache == null)
+            cache = new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY, metrics);
+        return cache;
+    }
+
+    /** Makespan of the best solution of the search so far, Integer.MAX_VALUE if there is none. */
+    public int bestMakespan() {
+        return bestMakespan;
+    }
+
+    /** Records the initial solution of the search, whose producer has already notified the listener. */
+    public void started(int makespan) {
+        if (makespan < bestMakespan) {
+            bestMakespan = makespan;
+            trace.improved(0, makespan);
+            metrics.improved();
+        }
+    }
+
+    /** Reports a solution found by a stage. It is ignored unless it improves on the best solution so far.
+     *
+     * @param order The solution, which is only read during the call.
+     * @param makespan Makespan of the solution.
+     * @param iteration Iteration of the stage at which the solution was found.
+     * @return True if the solution is a new best one.
+     */
+    public boolean improved(ResourceOrder order, int makespan, long iteration) {
+        if (makespan >= bestMakespan)
+            return false;
+        bestMakespan = makespan;
+        trace.improved(iteration, makespan);
+        metrics.improved();
+        listener.newIncumbent(order.toSchedule().get(), makespan);
+        return true;
+    }
+
+    /** True if the search is cancelled or the deadline is met. */
+    public boolean stopped(long deadline) {
+        return token.isCancelled() || System.currentTimeMillis() >= deadline;
+    }
+
+    /** Builds the result of the search, with its trace and metrics. */
+    public Result result(Instance instance, ResourceOrder order, Result.ExitCause cause) {
+        return new Result(instance, order.toSchedule(), cause, trace, metrics);
+    }
+}
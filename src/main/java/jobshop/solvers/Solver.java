@@ -2,8 +2,11 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.SolutionStore;
 import jobshop.solvers.neighborhood.Nowicki;
 
+import java.nio.file.Paths;
+
 /** Common interface that must implemented by all solvers. */
 public interface Solver {
 
@@ -14,28 +17,83 @@ public interface Solver {
      *                 This time is in milliseconds and can be compared with System.currentTimeMilliseconds()
      * @return A Result containing the solution found and an explanation of why the solver exited.
      */
-    Result solve(Instance instance, long deadline);
+    default Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, IncumbentListener.NONE, new CancellationToken());
+    }
+
+    /** Look for a solution until blocked, a deadline has been met or the search is cancelled.
+     *
+     * @param instance Jobshop instance that should be solved.
+     * @param deadline Absolute time at which the solver should have returned a solution.
+     *                 This time is in milliseconds and can be compared with System.currentTimeMilliseconds()
+     * @param listener Notified of each new best solution found by the solver, allowing callers to use the best
+     *                 solution available at any moment.
+     * @param token Token through which the caller can stop the solver early.
+     * @return A Result containing the solution found and an explanation of why the solver exited.
+     */
+    Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token);
 
     /** Static factory method to create a new solver based on its name. */
     static Solver getSolver(String name) {
+        return getSolver(name, null);
+    }
+
+    /** Static factory method to create a new solver based on its name.
+     *
+     * @param store If not null, local search solvers start from the solution of the instance in this store
+     *              (when there is one) instead of the solution of their greedy base solver.
+     */
+    static Solver getSolver(String name, SolutionStore store) {
+        return getSolver(name, store, 0);
+    }
+
+    /** Static factory method to create a new solver based on its name.
+     *
+     * The name is either the one of a predefined solver or the description of a SolverPipeline, such as
+     * <code>estlrpt>descent>taboo(tenure=10)</code>. The name <code>tuned</code> (or <code>tuned:FILE</code>) selects
+     * a TunedSolver with the configuration in TunedSolver.DEFAULT_FILE (or FILE).
+     *
+     * @param store If not null, local search solvers start from the solution of the instance in this store
+     *              (when there is one) instead of the solution of their greedy base solver.
+     * @param seed Seed of the random choices of the solver, for solvers that make any.
+     */
+    static Solver getSolver(String name, SolutionStore store, long seed) {
+        if (name.contains(">"))
+            return SolverPipeline.parse(name, store, seed);
+        if (name.equals("tuned") || name.startsWith("tuned:")) {
+            String file = name.equals("tuned") ? TunedSolver.DEFAULT_FILE : name.substring("tuned:".length());
+            return TunedSolver.load(Paths.get(file), store, seed);
+        }
         switch (name) {
             case "basic": return new BasicSolver();
-            case "random": return new RandomSolver();
+            case "random": return new RandomSolver(seed);
             case "spt": return new GreedySolver(GreedySolver.Priority.SPT);
             case "lrpt": return new GreedySolver(GreedySolver.Priority.LRPT);
             case "estspt": return new GreedySolver(GreedySolver.Priority.EST_SPT);
             case "estlrpt": return new GreedySolver(GreedySolver.Priority.EST_LRPT);
-            case "desspt": return new DescentSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.SPT));
-            case "deslrpt": return new DescentSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.LRPT));
-            case "desestspt": return new DescentSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_SPT));
-            case "desestlrpt": return new DescentSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT));
-            case "taboo4": return new TabooSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT),1000,4);
-            case "taboo7": return new TabooSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT),1000,7);
-            case "taboo10": return new TabooSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT),1000,10);
-            case "taboo13": return new TabooSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT),1000,13);
-            case "taboo40": return new TabooSolver(new Nowicki(),new GreedySolver(GreedySolver.Priority.EST_LRPT),1000,40);
+            case "gtspt": return new GifflerThompson(GifflerThompson.Variant.Active,GifflerThompson.Rule.SPT,seed);
+            case "gtlrpt": return new GifflerThompson(GifflerThompson.Variant.Active,GifflerThompson.Rule.LRPT,seed);
+            case "ndspt": return new GifflerThompson(GifflerThompson.Variant.NonDelay,GifflerThompson.Rule.SPT,seed);
+            case "ndlrpt": return new GifflerThompson(GifflerThompson.Variant.NonDelay,GifflerThompson.Rule.LRPT,seed);
+            case "desspt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.SPT)));
+            case "deslrpt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.LRPT)));
+            case "desestspt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_SPT)));
+            case "desestlrpt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)));
+            case "fdesestspt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_SPT)),DescentSolver.Strategy.FirstImprovement,seed);
+            case "fdesestlrpt": return new DescentSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),DescentSolver.Strategy.FirstImprovement,seed);
+            case "taboo4": return new TabooSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),1000,4);
+            case "taboo7": return new TabooSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),1000,7);
+            case "taboo10": return new TabooSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),1000,10);
+            case "taboo13": return new TabooSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),1000,13);
+            case "taboo40": return new TabooSolver(new Nowicki(),warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),1000,40);
+            case "ils": return new IteratedLocalSearch(warmStart(store,new GreedySolver(GreedySolver.Priority.EST_LRPT)),2,0.02,seed);
             default: throw new RuntimeException("Unknown solver: "+ name);
         }
     }
 
+    /** Base solver of a local search: the stored solution if a store is given, the base solver otherwise. */
+    private static Solver warmStart(SolutionStore store, Solver base) {
+        return store == null ? base : new StoredSolver(store, base);
+    }
+
 }
@@ -0,0 +1,255 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolutionStore;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.Neighborhood;
+import jobshop.solvers.neighborhood.Nowicki;
+import jobshop.solvers.neighborhood.SampledNeighborhood;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/** A solver made of a construction stage followed by local searches, each one improving the solution of the previous.
+ *
+ * The solution is converted once from the Schedule of the construction stage into a ResourceOrder, which is then
+ * handed over in place from stage to stage. All stages share a SearchContext, and thus one trace, one set of metrics
+ * and one evaluation cache.
+ *
+ * The time budget is split between stages according to their shares: when a stage starts, it is given the fraction
+ * <code>share / (sum of the shares of the stages left)</code> of the time left, the last stage running until the
+ * deadline. A stage that returns early (e.g. a descent in a local minimum) thus leaves its time to the next stages.
+ *
+ * Pipelines are described by strings such as <code>estlrpt>descent(strategy=first)>taboo(tenure=10,share=3)</code>,
+ * see <code>parse</code>.
+ */
+public final class SolverPipeline implements Solver, LocalSearch {
+
+    /** A local search of the pipeline and its share of the time budget. */
+    public static final class Stage {
+        final LocalSearch search;
+        final double share;
+
+        public Stage(LocalSearch search, double share) {
+            if (!(share > 0))
+                throw new IllegalArgumentException("The share of a stage must be positive: " + share);
+            this.search = search;
+            this.share = share;
+        }
+    }
+
+    final Solver construction;
+    final double constructionShare;
+    final List<Stage> stages;
+
+    /** Creates a new pipeline.
+     *
+     * @param construction Solver providing the initial solution.
+     * @param constructionShare Share of the time budget given to the construction.
+     * @param stages Local searches applied one after the other to the solution.
+     */
+    public SolverPipeline(Solver construction, double constructionShare, List<Stage> stages) {
+        if (!(constructionShare > 0))
+            throw new IllegalArgumentException("The share of a stage must be positive: " + constructionShare);
+        this.construction = construction;
+        this.constructionShare = constructionShare;
+        this.stages = List.copyOf(stages);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        SearchContext context = new SearchContext(listener, token);
+        double sharesLeft = constructionShare;
+        for (Stage stage : stages)
+            sharesLeft += stage.share;
+
+        Result initial = construction.solve(instance, stageDeadline(deadline, constructionShare, sharesLeft), listener, token);
+        sharesLeft -= constructionShare;
+        if (initial.schedule.isEmpty())
+            return new Result(instance, Optional.empty(), initial.cause, context.trace, context.metrics);
+        Schedule schedule = initial.schedule.get();
+        ResourceOrder order = new ResourceOrder(schedule);
+        context.started(schedule.makespan());
+
+        Result.ExitCause cause = stages.isEmpty() ? initial.cause : runStages(order, deadline, context, sharesLeft);
+        return context.result(instance, order, cause);
+    }
+
+    /** Runs the local searches of the pipeline from the given solution, without the construction stage.
+     *
+     * This allows resuming the search from a solution found elsewhere, e.g. by another island. If the pipeline has
+     * no local search, the solution is left as is.
+     */
+    @Override
+    public Result.ExitCause improve(ResourceOrder order, int makespan, long deadline, SearchContext context) {
+        if (stages.isEmpty())
+            return Result.ExitCause.Blocked;
+        double sharesLeft = 0;
+        for (Stage stage : stages)
+            sharesLeft += stage.share;
+        context.started(makespan);
+        return runStages(order, deadline, context, sharesLeft);
+    }
+
+    /** Runs all local searches on the solution, which is then the best solution of the context. */
+    private Result.ExitCause runStages(ResourceOrder order, long deadline, SearchContext context, double sharesLeft) {
+        Result.ExitCause cause = Result.ExitCause.Blocked;
+        for (int i = 0; i < stages.size(); i++) {
+            if (context.stopped(deadline))
+                return context.token.isCancelled() ? Result.ExitCause.Cancelled : Result.ExitCause.Timeout;
+            Stage stage = stages.get(i);
+            long end = i == stages.size() - 1 ? deadline : stageDeadline(deadline, stage.share, sharesLeft);
+            cause = stage.search.improve(order, context.bestMakespan(), end, context);
+            sharesLeft -= stage.share;
+            if (cause == Result.ExitCause.Cancelled)
+                break;
+        }
+        return cause;
+    }
+
+    /** Deadline of a stage starting now, that receives the given share of the time left. */
+    private static long stageDeadline(long deadline, double share, double sharesLeft) {
+        long now = System.currentTimeMillis();
+        if (now >= deadline)
+            return deadline;
+        return Math.min(deadline, now + (long) Math.ceil((deadline - now) * share / sharesLeft));
+    }
+
+    /** Creates a pipeline from its description.
+     *
+     * A description is a list of stages separated by <code>></code>. Each stage is a name, optionally followed by
+     * parameters <code>(key=value,...)</code>. The first stage is the name of any solver accepted by
+     * <code>Solver.getSolver</code>, and the next ones are local searches:
+     * <ul>
+     *     <li><code>descent(strategy=steepest|first)</code>, a DescentSolver (steepest by default);</li>
+     *     <li><code>taboo(tenure=10,maxiter=1000,sample=0)</code>, a TabooSolver, evaluating a SampledNeighborhood of at
+     *     least <code>sample</code> neighbors per iteration if sample is not 0;</li>
+     *     <li><code>ils(k=2,threshold=0.02)</code>, an IteratedLocalSearch.</li>
+     * </ul>
+     * All stages accept a <code>share</code> parameter, their share of the time budget (1 by default).
+     *
+     * @param store If not null, the pipeline starts from the solution of the instance in this store (when there is
+     *              one) instead of the solution of its first stage.
+     * @param seed Seed of the random choices of all stages.
+     */
+    public static SolverPipeline parse(String description, SolutionStore store, long seed) {
+        String[] parts = description.split(">", -1);
+        StageDescription first = StageDescription.parse(parts[0]);
+        Solver construction = Solver.getSolver(first.name, null, seed);
+        if (store != null)
+            construction = new StoredSolver(store, construction);
+        double constructionShare = first.share();
+        first.checkUsed();
+
+        List<Stage> stages = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            StageDescription stage = StageDescription.parse(parts[i]);
+            LocalSearch search;
+            switch (stage.name) {
+                case "descent":
+                    String strategy = stage.get("strategy", "steepest");
+                    switch (strategy) {
+                        case "steepest":
+                            search = new DescentSolver(new Nowicki(), null, DescentSolver.Strategy.Steepest, seed);
+                            break;
+                        case "first":
+                            search = new DescentSolver(new Nowicki(), null, DescentSolver.Strategy.FirstImprovement, seed);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown descent strategy: " + strategy);
+                    }
+                    break;
+                case "taboo":
+                    // with sample=k, each iteration only evaluates a sample of at least k neighbors
+                    int sample = stage.getInt("sample", 0);
+                    Neighborhood<ResourceOrder> neighborhood = sample == 0 ? new Nowicki() : new SampledNeighborhood(new Nowicki(), sample, seed);
+                    search = new TabooSolver(neighborhood, null, stage.getInt("maxiter", 1000), stage.getInt("tenure", 10));
+                    break;
+                case "ils":
+                    search = new IteratedLocalSearch(null, stage.getInt("k", 2), stage.getDouble("threshold", 0.02), seed);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown local search: " + stage.name);
+            }
+            stages.add(new Stage(search, stage.share()));
+            stage.checkUsed();
+        }
+        return new SolverPipeline(construction, constructionShare, stages);
+    }
+
+    /** A stage of a pipeline description: <code>name(key=value,...)</code>. */
+    private static final class StageDescription {
+        final String name;
+        final Map<String, String> parameters = new HashMap<>();
+        final String text;
+
+        private StageDescription(String name, String text) {
+            this.name = name;
+            this.text = text;
+        }
+
+        static StageDescription parse(String text) {
+            String stage = text.strip();
+            int open = stage.indexOf('(');
+            if (open < 0) {
+                if (stage.isEmpty())
+                    throw new IllegalArgumentException("Empty stage in solver pipeline");
+                return new StageDescription(stage, text);
+            }
+            if (open == 0 || !stage.endsWith(")"))
+                throw new IllegalArgumentException("Invalid stage in solver pipeline: " + text);
+            StageDescription description = new StageDescription(stage.substring(0, open).strip(), text);
+            String parameters = stage.substring(open + 1, stage.length() - 1).strip();
+            if (parameters.isEmpty())
+                return description;
+            for (String parameter : parameters.split(",")) {
+                int equals = parameter.indexOf('=');
+                if (equals < 0)
+                    throw new IllegalArgumentException("Invalid parameter '" + parameter.strip() + "' in stage " + text);
+                String key = parameter.substring(0, equals).strip();
+                if (description.parameters.put(key, parameter.substring(equals + 1).strip()) != null)
+                    throw new IllegalArgumentException("Duplicate parameter '" + key + "' in stage " + text);
+            }
+            return description;
+        }
+
+        /** Returns and consumes the value of a parameter. */
+        String get(String key, String defaultValue) {
+            String value = parameters.remove(key);
+            return value == null ? defaultValue : value;
+        }
+
+        int getInt(String key, int defaultValue) {
+            String value = get(key, null);
+            try {
+                return value == null ? defaultValue : Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value of '" + key + "' in stage " + text + ": " + value);
+            }
+        }
+
+        double getDouble(String key, double defaultValue) {
+            String value = get(key, null);
+            try {
+                return value == null ? defaultValue : Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value of '" + key + "' in stage " + text + ": " + value);
+            }
+        }
+
+        double share() {
+            return getDouble("share", 1);
+        }
+
+        /** Fails if the stage has parameters that were not consumed. */
+        void checkUsed() {
+            if (!parameters.isEmpty())
+                throw new IllegalArgumentException("Unknown parameters " + parameters.keySet() + " in stage " + text);
+        }
+    }
+}
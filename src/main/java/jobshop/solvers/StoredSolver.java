@@ -0,0 +1,39 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolutionStore;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+
+import java.util.Optional;
+
+/** A solver that returns the solution stored for the instance in a SolutionStore.
+ *
+ * It is meant to be used as the base solver of a local search, to warm start it from the best solution found by
+ * previous runs. If no valid solution is stored for the instance, the fallback solver is used instead.
+ */
+public class StoredSolver implements Solver {
+
+    final SolutionStore store;
+    final Solver fallback;
+
+    /** Creates a new solver reading solutions from the store.
+     *
+     * @param store Store containing the solutions of previous runs.
+     * @param fallback Solver used for instances that have no stored solution.
+     */
+    public StoredSolver(SolutionStore store, Solver fallback) {
+        this.store = store;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        Optional<Schedule> stored = store.load(instance).flatMap(ResourceOrder::toSchedule);
+        if(stored.isEmpty())
+            return fallback.solve(instance, deadline, listener, token);
+        listener.newIncumbent(stored.get(), stored.get().makespan());
+        return new Result(instance, stored, Result.ExitCause.Blocked);
+    }
+}
@@ -2,16 +2,17 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.SolverMetrics;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Task;
-import jobshop.solvers.neighborhood.Neighbor;
+import jobshop.jfr.Recordings;
+import jobshop.jfr.SolverIterationEvent;
+import jobshop.solvers.neighborhood.MoveBuffer;
 import jobshop.solvers.neighborhood.Neighborhood;
-import jobshop.solvers.neighborhood.Nowicki;
 
-import java.util.Arrays;
 import java.util.List;
 
-public class TabooSolver implements Solver {
+public class TabooSolver implements Solver, LocalSearch {
 
     final Neighborhood<ResourceOrder> neighborhood;
     final Solver baseSolver;
@@ -26,97 +27,148 @@ public class TabooSolver implements Solver {
     }
 
     @Override
-    public Result solve(Instance instance, long deadline){
-        //sauvegarde l'information sur les permutation qu'on peut ou peut pas utiliser
-        int [][] Taboo=new int[instance.numTasks*instance.numJobs][instance.numTasks*instance.numJobs];
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token){
+        return new SolverPipeline(baseSolver,1,List.of(new SolverPipeline.Stage(this,1))).solve(instance,deadline,listener,token);
+    }
+
+    @Override
+    public Result.ExitCause improve(ResourceOrder order, int makespan, long deadline, SearchContext context){
+        Instance instance=order.instance;
+        SolverMetrics metrics=context.metrics;
+        //sauvegarde l'information sur les permutation qu'on peut ou peut pas utiliser :
+        //deux tâches d'une même machine sont de jobs différents, on indexe donc par (machine, job1, job2).
+        //Les lignes sont allouées à la première permutation taboo, une ligne absente n'est jamais taboo
+        int [][][] Taboo=new int[instance.numMachines][instance.numJobs][];
         //compteur d'itérations
         int k=0;
-        //pour garder le meilleur makespan
-        int makespan;
-        //on crée le ressource order de la solution de base et la meilleur
-        ResourceOrder base=new ResourceOrder(baseSolver.solve(instance,deadline).schedule.get());
-        ResourceOrder meilleur=base;
-
-        //on remplit Taboo, initialement aucune permutation est Taboo
-        for (int i=0;i<instance.numTasks;i++){
-            for (int j=0;j< instance.numTasks;j++){
-                Taboo[i][j]=0;
-            }
-        }
+        //makespans des solutions déjà évaluées, pour ne pas les décoder plusieurs fois
+        EvaluationCache cache=context.cache();
+        //solutions déjà visitées par la recherche, pour détecter quand elle tourne en rond
+        EvaluationCache visited=new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY);
+        //nombre d'itérations consécutives qui ont mené à une solution déjà visitée
+        int revisits=0;
+        //base est une copie : order garde la meilleure solution
+        ResourceOrder base=order.copy();
+        int meilleurspan=makespan;
+        //le voisinage peut adapter le nombre de voisins au temps restant (voir SampledNeighborhood)
+        neighborhood.searchStarted(deadline);
+        //les swaps sont écrits dans un tampon réutilisé à chaque itération : la boucle n'alloue rien
+        MoveBuffer swaps=new MoveBuffer();
 
-        //on boucle sur les voisins
+        //on boucle sur les voisins (initialement aucune permutation est Taboo)
         while (k<maxiter) {
+            //on s'arrête au plus vite si la recherche est annulée ou si le temps est écoulé
+            if (context.token.isCancelled()){
+                return Result.ExitCause.Cancelled;
+            }
+            if (System.currentTimeMillis()>=deadline){
+                return Result.ExitCause.Timeout;
+            }
+            SolverIterationEvent event=Recordings.enabled() ? new SolverIterationEvent() : null;
+            if (event!=null) {
+                event.begin();
+            }
             //on incrémente le nombre d'itération
             k++;
             //On choisit le meilleur swap non taboo
             //On utilise les swaps pour gérer les taches qui sont échangés plus facilement
-            List<Nowicki.Swap> swaps=new Nowicki().allSwaps(base);
-//            System.out.println("On a "+swaps.size()+" swaps possibles");
+            neighborhood.generateMoves(base,swaps);
+            metrics.generated(swaps.size());
             //si aucun swap n'est possible on a pas de voisin donc on retourne le résultat
-            if (swaps.isEmpty()){
-                return new Result(instance,meilleur.toSchedule(),Result.ExitCause.Blocked);
+            if (swaps.size()==0){
+                return Result.ExitCause.Blocked;
             }
             //pour choisir le meilleur voisin
-            Nowicki.Swap bestswap = null;
+            int bestswap = -1;
 
             makespan=Integer.MAX_VALUE;
-            for (Nowicki.Swap currentswap : swaps) {
-                //On vérifie si on a le droit d'utiliser le swap
-                Task try1=base.getTaskOfMachine(currentswap.machine, currentswap.t1);
-
-                Task try2=base.getTaskOfMachine(currentswap.machine, currentswap.t2);
-//                System.out.println("Swipe en question: "+try1+" et "+try2);
-//                System.out.println(Taboo[try2.job*instance.numTasks+ try2.task][try1.job*instance.numTasks+ try1.task]);
-//                System.out.println(Taboo[try1.job*instance.numTasks+ try1.task][try2.job*instance.numTasks+ try2.task]);
-                //si swipe pas Taboo alors on vérifie si le makespan est meilleur que celui actuel
-                if (Taboo[try1.job*instance.numTasks+ try1.task][try2.job*instance.numTasks+ try2.task]<=k && Taboo[try2.job*instance.numTasks+ try2.task][try1.job*instance.numTasks+ try1.task]<=k) {
-//                    System.out.println("on Rentre");
-
+            //si le voisinage n'a donné qu'un échantillon des swaps et qu'ils sont tous taboo, on évalue tous les swaps
+            //avant de conclure que la recherche est bloquée (les swaps déjà évalués sont dans le cache)
+            for (int pass=0; pass<2 && bestswap<0; pass++) {
+                if (pass==1) {
+                    int sampled=swaps.size();
+                    neighborhood.generateAllMoves(base,swaps);
+                    if (swaps.size()==sampled) {
+                        break;
+                    }
+                    metrics.generated(swaps.size()-sampled);
+                }
+                for (int currentswap=0;currentswap<swaps.size();currentswap++) {
+                    //On vérifie si on a le droit d'utiliser le swap
+                    Task try1=base.getTaskOfMachine(swaps.machine(currentswap), swaps.first(currentswap));
+                    Task try2=base.getTaskOfMachine(swaps.machine(currentswap), swaps.second(currentswap));
+                    boolean taboo=isTaboo(Taboo[swaps.machine(currentswap)],try1.job,try2.job,k)
+                            || isTaboo(Taboo[swaps.machine(currentswap)],try2.job,try1.job,k);
 
-                    //On choppe le meilleur swap
-                    base.swapTasks(currentswap.machine, currentswap.t1, currentswap.t2);
-                    //si le swipe est réalisable on update le makespan si il est meilleur que celui actuel
-                    if (!base.toSchedule().isEmpty()) {
-                        if (makespan > base.toSchedule().get().makespan()) {
-                            makespan = base.toSchedule().get().makespan();
-                            bestswap = currentswap;
+                    neighborhood.applyMove(base,swaps,currentswap);
+                    int span=cache.makespan(base,base.zobristHash());
+                    //si le swipe est réalisable
+                    if (span!=EvaluationCache.INFEASIBLE) {
+                        if (!taboo) {
+                            //si swipe pas Taboo on update le makespan si il est meilleur que celui actuel
+                            if (makespan > span) {
+                                makespan = span;
+                                bestswap = currentswap;
+                            }
+                        } else if (span < meilleurspan) {
+                            //si la solution est taboo mais qu'elle a un meilleur makespan on change meilleur
+                            order.copyFrom(base);
+                            meilleurspan = span;
+                            context.improved(order,meilleurspan,k);
                         }
                     }
                     //on unapply le swap
-                    base.swapTasks(currentswap.machine, currentswap.t1, currentswap.t2);
-                }else{
-                    //si la solution est taboo mais qu'elle a un meilleur makespan on change meilleur
-                    base.swapTasks(currentswap.machine, currentswap.t1, currentswap.t2);
-                    if (!base.toSchedule().isEmpty()){
-                        if (base.toSchedule().get().makespan()<meilleur.toSchedule().get().makespan()){
-                            meilleur=base;
-                        }
-                    }
-                    //on remet la solution normal
-                    base.swapTasks(currentswap.machine, currentswap.t1, currentswap.t2);
-
+                    neighborhood.undoMove(base,swaps,currentswap);
+                    neighborhood.moveEvaluated(base,swaps,currentswap,span);
                 }
-
             }
             //on a pas de meilleurs swap donc on retourne le résultat
-            if (bestswap==null){
-                return new Result(instance,meilleur.toSchedule(),Result.ExitCause.Blocked);
+            if (bestswap<0){
+                return Result.ExitCause.Blocked;
             }
             //on rajoute du temps dans taboo pour les task swapper
-            Task task1=base.getTaskOfMachine(bestswap.machine, bestswap.t1);
-            Task task2=base.getTaskOfMachine(bestswap.machine, bestswap.t2);
-            //On utilise les identifiants des tasks permutés en indice
-            Taboo[task1.job*instance.numTasks+ task1.task][task2.job*instance.numTasks+ task2.task]=dureeTaboo+k;
-//            System.out.println("update : "+Taboo[task1.job*instance.numTasks+ task1.task][task2.job*instance.numTasks+ task2.task]);
+            Task task1=base.getTaskOfMachine(swaps.machine(bestswap), swaps.first(bestswap));
+            Task task2=base.getTaskOfMachine(swaps.machine(bestswap), swaps.second(bestswap));
+            //On utilise la machine et les jobs des tasks permutés en indice
+            int[][] tabooMachine=Taboo[swaps.machine(bestswap)];
+            if (tabooMachine[task1.job]==null){
+                tabooMachine[task1.job]=new int[instance.numJobs];
+            }
+            tabooMachine[task1.job][task2.job]=dureeTaboo+k;
             //on applique le meilleur swap pour aller dans la prochaine boucle
-            base.swapTasks(bestswap.machine, bestswap.t1, bestswap.t2);
-            if (meilleur.toSchedule().get().makespan()>base.toSchedule().get().makespan()){
-                meilleur=base;
+            neighborhood.applyMove(base,swaps,bestswap);
+            if (meilleurspan>makespan){
+                order.copyFrom(base);
+                meilleurspan=makespan;
+                context.improved(order,meilleurspan,k);
+            }
+            metrics.iteration();
+            if (event!=null && event.shouldCommit()) {
+                event.solver="taboo";
+                event.instance=instance.name;
+                event.iteration=k;
+                event.neighbors=swaps.size();
+                event.makespan=makespan;
+                event.commit();
+            }
+            //si on revient sur des solutions déjà visitées plus longtemps que la durée taboo, la recherche cycle
+            long hash=base.zobristHash();
+            if (visited.contains(hash)){
+                revisits++;
+                if (revisits>dureeTaboo){
+                    return Result.ExitCause.Blocked;
+                }
+            }else{
+                revisits=0;
+                visited.put(hash,makespan);
             }
-//            System.out.println("On swap "+task1+" et "+task2);
         }
 
-        Result result= new Result(instance,meilleur.toSchedule(),Result.ExitCause.ProvedOptimal);
-        return result;
+        return Result.ExitCause.ProvedOptimal;
+    }
+
+    /** True if swapping the task of <code>job1</code> before the one of <code>job2</code> on this machine is still taboo at iteration <code>k</code>. */
+    private static boolean isTaboo(int[][] tabooMachine, int job1, int job2, int k) {
+        return tabooMachine[job1]!=null && tabooMachine[job1][job2]>k;
     }
 }
@@ -0,0 +1,107 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolutionStore;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/** A solver that delegates to the solver tuned for the size of each instance.
+ *
+ * The configuration is produced by <code>jobshop.Tuning</code>: a properties file associating size classes
+ * (<code>numJobs x numMachines</code>, e.g. <code>10x5</code>) to solver names, such as
+ * <pre>
+ *   10x5=estlrpt&gt;taboo(tenure=7,maxiter=1000)
+ * </pre>
+ * An instance whose size was not tuned uses the solver of the closest size class, the distance being measured on
+ * the logarithms of the number of jobs and of machines.
+ */
+public class TunedSolver implements Solver {
+
+    /** Configuration file used by the solver named <code>tuned</code>. */
+    public static final String DEFAULT_FILE = "tuning.properties";
+
+    final Map<String, String> solvers;
+    final SolutionStore store;
+    final long seed;
+
+    /** Creates a new solver from a configuration.
+     *
+     * @param solvers Name of the solver of each size class, which should not be empty.
+     * @param store Store given to the delegate solvers, may be null.
+     * @param seed Seed given to the delegate solvers.
+     */
+    public TunedSolver(Map<String, String> solvers, SolutionStore store, long seed) {
+        if (solvers.isEmpty())
+            throw new IllegalArgumentException("No tuned solver");
+        for (Map.Entry<String, String> e : solvers.entrySet()) {
+            parseSize(e.getKey());
+            Solver.getSolver(e.getValue(), store, seed); // fail early on unknown solvers
+        }
+        this.solvers = new LinkedHashMap<>(solvers);
+        this.store = store;
+        this.seed = seed;
+    }
+
+    /** Loads the configuration written by <code>jobshop.Tuning</code>. */
+    public static TunedSolver load(Path file, SolutionStore store, long seed) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read tuning configuration " + file, e);
+        }
+        Map<String, String> solvers = new LinkedHashMap<>();
+        for (String size : properties.stringPropertyNames())
+            solvers.put(size, properties.getProperty(size));
+        return new TunedSolver(solvers, store, seed);
+    }
+
+    /** Size class of an instance: <code>numJobs x numMachines</code>, e.g. <code>10x5</code>. */
+    public static String sizeClass(Instance instance) {
+        return instance.numJobs + "x" + instance.numMachines;
+    }
+
+    /** Returns the number of jobs and of machines of a size class. */
+    private static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        try {
+            if (parts.length == 2)
+                return new int[] { Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) };
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid size class: " + size);
+    }
+
+    /** Name of the solver tuned for the size class of the instance, or for the closest size class. */
+    public String solverFor(Instance instance) {
+        String exact = solvers.get(sizeClass(instance));
+        if (exact != null)
+            return exact;
+        String closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, String> e : solvers.entrySet()) {
+            int[] size = parseSize(e.getKey());
+            double distance = Math.abs(Math.log((double) size[0] / instance.numJobs))
+                    + Math.abs(Math.log((double) size[1] / instance.numMachines));
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = e.getValue();
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, IncumbentListener listener, CancellationToken token) {
+        return Solver.getSolver(solverFor(instance), store, seed).solve(instance, deadline, listener, token);
+    }
+}
@@ -0,0 +1,289 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Maintains the heads (earliest start times) of the tasks of a ResourceOrder across the swaps of a search, and
+ * extracts the blocks of its critical path from them.
+ *
+ * The tracker describes the resource order whose Zobrist hash is <code>hash</code>. Swaps created by Nowicki log
+ * themselves in the tracker when they are applied or undone; when the blocks of a resource order are requested, the
+ * logged swaps are replayed if they lead from <code>hash</code> to the hash of that order. Only the tasks whose
+ * predecessors changed and the tasks whose head changes as a consequence are then updated, instead of decoding the
+ * whole solution. Any other resource order (a copy modified directly, a perturbed solution...) is decoded again.
+ *
+ * Tasks are identified by <code>job * numTasks + task</code>. This class is not thread-safe.
+ */
+final class CriticalPathTracker {
+
+    private Instance instance;
+    // head of each task, i.e. its start time in the schedule decoded from the resource order
+    private int[] head;
+    // index of each task in the queue of its machine
+    private int[] position;
+    // hash of the resource order described by head and position, valid only if synced is true
+    private long hash;
+    private boolean synced = false;
+
+    // swaps applied since the last synchronization: machine, indices and hashes of the order before and after
+    private int logSize = 0;
+    private int[] logMachine = new int[4];
+    private int[] logFirst = new int[4];
+    private int[] logSecond = new int[4];
+    private long[] logBefore = new long[4];
+    private long[] logAfter = new long[4];
+
+    // tasks whose head must be recomputed, as a circular queue holding each task at most once
+    private int[] queue;
+    private boolean[] queued;
+
+    // schedule in which the resource order is decoded when it cannot be updated incrementally
+    private Schedule schedule;
+    // critical path, built from its end
+    private int[] path;
+    // blocks found by the last call to findBlocks: machine and indices of their first and last tasks
+    private int[] blockMachine;
+    private int[] blockFirst;
+    private int[] blockLast;
+
+    /** Records that a swap was applied on a resource order. */
+    void applied(int machine, int t1, int t2, long before, long after) {
+        log(machine, t1, t2, before, after);
+    }
+
+    /** Records that a swap was undone on a resource order, cancelling it if it was the last swap applied. */
+    void undone(int machine, int t1, int t2, long before, long after) {
+        int last = logSize - 1;
+        if(last >= 0 && logMachine[last] == machine && logFirst[last] == t1 && logSecond[last] == t2
+                && logAfter[last] == before && logBefore[last] == after) {
+            logSize--;
+        } else {
+            // undoing a swap is applying it again
+            log(machine, t1, t2, before, after);
+        }
+    }
+
+    private void log(int machine, int t1, int t2, long before, long after) {
+        if(logSize == logMachine.length) {
+            int capacity = 2 * logSize;
+            logMachine = Arrays.copyOf(logMachine, capacity);
+            logFirst = Arrays.copyOf(logFirst, capacity);
+            logSecond = Arrays.copyOf(logSecond, capacity);
+            logBefore = Arrays.copyOf(logBefore, capacity);
+            logAfter = Arrays.copyOf(logAfter, capacity);
+        }
+        logMachine[logSize] = machine;
+        logFirst[logSize] = t1;
+        logSecond[logSize] = t2;
+        logBefore[logSize] = before;
+        logAfter[logSize] = after;
+        logSize++;
+    }
+
+    /** Returns the blocks of the critical path of the resource order, which must be a valid solution. */
+    List<Nowicki.Block> blocks(ResourceOrder order) {
+        int count = findBlocks(order);
+        List<Nowicki.Block> blocks = new ArrayList<>(count);
+        for(int b = 0; b < count; b++)
+            blocks.add(new Nowicki.Block(blockMachine[b], blockFirst[b], blockLast[b]));
+        return blocks;
+    }
+
+    /** Finds the blocks of the critical path of the resource order, which must be a valid solution.
+     *
+     * The critical path is the one of <code>Schedule.criticalPath()</code>. The blocks are then available through
+     * <code>blockMachine</code>, <code>blockFirst</code> and <code>blockLast</code>, until the next call.
+     *
+     * @return The number of blocks.
+     */
+    int findBlocks(ResourceOrder order) {
+        sync(order);
+        final int numTasks = instance.numTasks;
+
+        // the critical path ends with the first task that finishes last
+        int last = numTasks - 1;
+        int makespan = -1;
+        for(int job = 0; job < instance.numJobs; job++) {
+            int end = head[job * numTasks + numTasks - 1] + instance.duration(job, numTasks - 1);
+            if(end > makespan) {
+                makespan = end;
+                last = job * numTasks + numTasks - 1;
+            }
+        }
+
+        // walk back to a task starting at 0, preferring the predecessor on the job when it is critical
+        int length = 0;
+        int cur = last;
+        path[length++] = cur;
+        while(head[cur] != 0) {
+            int job = cur / numTasks, task = cur % numTasks;
+            if(task > 0 && head[cur - 1] + instance.duration(job, task - 1) == head[cur]) {
+                cur = cur - 1;
+            } else {
+                Task pred = order.getTaskOfMachine(instance.machine(job, task), position[cur] - 1);
+                cur = pred.job * numTasks + pred.task;
+            }
+            path[length++] = cur;
+        }
+
+        // split the path into sequences of at least two consecutive tasks on the same machine
+        int count = 0;
+        int first = length - 1;
+        for(int i = length - 2; i >= -1; i--) {
+            if(i >= 0 && machine(path[i]) == machine(path[first]))
+                continue;
+            if(first - i >= 2) {
+                blockMachine[count] = machine(path[first]);
+                blockFirst[count] = position[path[first]];
+                blockLast[count] = position[path[first]] + first - i - 1;
+                count++;
+            }
+            first = i;
+        }
+        return count;
+    }
+
+    /** Machine of the b-th block found by <code>findBlocks</code>. */
+    int blockMachine(int b) {
+        return blockMachine[b];
+    }
+
+    /** Index of the first task of the b-th block found by <code>findBlocks</code> in the queue of its machine. */
+    int blockFirst(int b) {
+        return blockFirst[b];
+    }
+
+    /** Index of the last task of the b-th block found by <code>findBlocks</code> in the queue of its machine. */
+    int blockLast(int b) {
+        return blockLast[b];
+    }
+
+    private int machine(int t) {
+        return instance.machine(t / instance.numTasks, t % instance.numTasks);
+    }
+
+    /** Brings the heads and positions up to date with the resource order. */
+    private void sync(ResourceOrder order) {
+        if(order.instance != instance) {
+            instance = order.instance;
+            int size = instance.numJobs * instance.numTasks;
+            head = new int[size];
+            position = new int[size];
+            queue = new int[size];
+            queued = new boolean[size];
+            path = new int[size];
+            blockMachine = new int[size];
+            blockFirst = new int[size];
+            blockLast = new int[size];
+            schedule = new Schedule(instance);
+            synced = false;
+        }
+        if(!(synced && replayable(order.zobristHash()) && update(order)))
+            decode(order);
+        hash = order.zobristHash();
+        synced = true;
+        logSize = 0;
+    }
+
+    /** True if the logged swaps lead from the synchronized resource order to the one with the given hash. */
+    private boolean replayable(long target) {
+        long h = hash;
+        for(int i = 0; i < logSize; i++) {
+            if(logBefore[i] != h)
+                return false;
+            h = logAfter[i];
+        }
+        return h == target;
+    }
+
+    /** Updates the heads of the tasks affected by the logged swaps.
+     *
+     * @return False if the update did not converge, i.e. the swaps created a cycle.
+     */
+    private boolean update(ResourceOrder order) {
+        int size = queue.length;
+        int head0 = 0, count = 0;
+        // the moved tasks and the tasks that now follow them on their machine have new predecessors
+        for(int i = 0; i < logSize; i++) {
+            int m = logMachine[i];
+            for(int k = 0; k < 4; k++) {
+                int index = (k < 2 ? logFirst[i] : logSecond[i]) + k % 2;
+                if(index >= instance.numJobs)
+                    continue;
+                Task t = order.getTaskOfMachine(m, index);
+                int id = t.job * instance.numTasks + t.task;
+                position[id] = index;
+                if(!queued[id]) {
+                    queued[id] = true;
+                    queue[(head0 + count++) % size] = id;
+                }
+            }
+        }
+
+        // recompute heads in a FIFO order, propagating to the successors of the tasks whose head changed. Tasks
+        // may be updated several times: past a bound, the graph probably has a cycle and the order is decoded.
+        long budget = 4L * size;
+        while(count > 0) {
+            int id = queue[head0];
+            head0 = (head0 + 1) % size;
+            count--;
+            queued[id] = false;
+            if(--budget < 0) {
+                clearQueue(head0, count);
+                return false;
+            }
+
+            int job = id / instance.numTasks, task = id % instance.numTasks;
+            int machine = instance.machine(job, task);
+            int h = task > 0 ? head[id - 1] + instance.duration(job, task - 1) : 0;
+            if(position[id] > 0) {
+                Task pred = order.getTaskOfMachine(machine, position[id] - 1);
+                h = Math.max(h, head[pred.job * instance.numTasks + pred.task] + instance.duration(pred.job, pred.task));
+            }
+            if(h == head[id])
+                continue;
+            head[id] = h;
+
+            if(task + 1 < instance.numTasks && !queued[id + 1]) {
+                queued[id + 1] = true;
+                queue[(head0 + count++) % size] = id + 1;
+            }
+            if(position[id] + 1 < instance.numJobs) {
+                Task succ = order.getTaskOfMachine(machine, position[id] + 1);
+                int s = succ.job * instance.numTasks + succ.task;
+                if(!queued[s]) {
+                    queued[s] = true;
+                    queue[(head0 + count++) % size] = s;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void clearQueue(int head0, int count) {
+        for(int i = 0; i < count; i++)
+            queued[queue[(head0 + i) % queue.length]] = false;
+    }
+
+    /** Computes the heads and positions of all tasks by decoding the resource order. */
+    private void decode(ResourceOrder order) {
+        if(order.decodeInto(schedule) == ResourceOrder.INFEASIBLE)
+            throw new IllegalArgumentException("Cannot find the critical path of an infeasible resource order");
+        for(int job = 0; job < instance.numJobs; job++) {
+            for(int task = 0; task < instance.numTasks; task++)
+                head[job * instance.numTasks + task] = schedule.startTime(job, task);
+        }
+        for(int m = 0; m < instance.numMachines; m++) {
+            for(int i = 0; i < instance.numJobs; i++) {
+                Task t = order.getTaskOfMachine(m, i);
+                position[t.job * instance.numTasks + t.task] = i;
+            }
+        }
+    }
+}
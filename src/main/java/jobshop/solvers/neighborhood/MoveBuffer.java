@@ -0,0 +1,103 @@
+package jobshop.solvers.neighborhood;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** A reusable buffer of moves, filled by <code>Neighborhood.generateMoves</code>.
+ *
+ * Unlike the Neighbor objects of <code>generateNeighbors</code>, moves are stored as integers (type, machine and
+ * two indices in the queue of the machine) in a single array that is reused from one iteration to the next: once it
+ * has grown to the size of the neighborhood, generating and exploring the neighbors of a solution allocates nothing.
+ * Moves are designated by their index in the buffer, from 0 to <code>size() - 1</code>, and applied or undone with
+ * <code>Neighborhood.applyMove</code> and <code>Neighborhood.undoMove</code>:
+ * <pre>
+ * neighborhood.generateMoves(order, moves);
+ * for(int k = 0; k &lt; moves.size(); k++) {
+ *     neighborhood.applyMove(order, moves, k);
+ *     ...
+ *     neighborhood.undoMove(order, moves, k);
+ * }
+ * </pre>
+ * A buffer should only be used with the neighborhood that filled it. It is not thread-safe.
+ */
+public final class MoveBuffer {
+
+    /** Type of the moves exchanging two tasks of a machine. */
+    public static final int SWAP = 0;
+
+    // number of integers per move: type, machine, first index, second index
+    private static final int STRIDE = 4;
+
+    private int[] moves;
+    private int size = 0;
+
+    // tracker of the Nowicki neighborhood that filled the buffer, informed when its moves are applied or undone
+    CriticalPathTracker tracker;
+
+    /** Creates an empty buffer. */
+    public MoveBuffer() {
+        this(64);
+    }
+
+    /** Creates an empty buffer with room for the given number of moves before growing. */
+    public MoveBuffer(int capacity) {
+        this.moves = new int[Math.max(1, capacity) * STRIDE];
+    }
+
+    /** Number of moves in the buffer. */
+    public int size() {
+        return size;
+    }
+
+    /** Removes all moves from the buffer. */
+    public void clear() {
+        size = 0;
+        tracker = null;
+    }
+
+    /** Adds a move at the end of the buffer. */
+    public void add(int type, int machine, int first, int second) {
+        if(size * STRIDE == moves.length)
+            moves = Arrays.copyOf(moves, 2 * moves.length);
+        int base = size * STRIDE;
+        moves[base] = type;
+        moves[base + 1] = machine;
+        moves[base + 2] = first;
+        moves[base + 3] = second;
+        size++;
+    }
+
+    /** Type of the k-th move, e.g. SWAP. */
+    public int type(int k) {
+        return moves[k * STRIDE];
+    }
+
+    /** Machine of the k-th move. */
+    public int machine(int k) {
+        return moves[k * STRIDE + 1];
+    }
+
+    /** Index of the first task of the k-th move in the queue of its machine. */
+    public int first(int k) {
+        return moves[k * STRIDE + 2];
+    }
+
+    /** Index of the second task of the k-th move in the queue of its machine. */
+    public int second(int k) {
+        return moves[k * STRIDE + 3];
+    }
+
+    /** Shuffles the moves, drawing the same random numbers as <code>Collections.shuffle</code> on a list. */
+    public void shuffle(Random random) {
+        for(int i = size; i > 1; i--)
+            swap(i - 1, random.nextInt(i));
+    }
+
+    private void swap(int a, int b) {
+        for(int i = 0; i < STRIDE; i++) {
+            int tmp = moves[a * STRIDE + i];
+            moves[a * STRIDE + i] = moves[b * STRIDE + i];
+            moves[b * STRIDE + i] = tmp;
+        }
+    }
+}
@@ -7,6 +7,9 @@ import java.util.List;
 /** For a particular encoding Enc, a neighborhood allow the generation of the neighbors of
  * a particular solution.
  *
+ * Neighbors can be generated either as Neighbor objects, or as moves written in a reusable MoveBuffer, which is the
+ * API to use in the inner loop of a search since it allocates nothing.
+ *
  * @param <Enc> A subclass of Encoding for which this encoding can generate neighbors.
  */
 public abstract class Neighborhood<Enc extends Encoding> {
@@ -14,4 +17,32 @@ public abstract class Neighborhood<Enc extends Encoding> {
     /** Generates all neighbors for the current solution.  */
     public abstract List<Neighbor<Enc>> generateNeighbors(Enc current);
 
+    /** Writes all neighbors of the current solution in the buffer, replacing its previous content. */
+    public abstract void generateMoves(Enc current, MoveBuffer moves);
+
+    /** Writes all neighbors of the current solution in the buffer, even if <code>generateMoves</code> only writes some
+     * of them. Must be called on the solution of the last call to <code>generateMoves</code>, once all moves have
+     * been undone. By default, the same as <code>generateMoves</code>: SampledNeighborhood overrides it to return the
+     * moves it left out of its sample. */
+    public void generateAllMoves(Enc current, MoveBuffer moves) {
+        generateMoves(current, moves);
+    }
+
+    /** Transforms the solution into its neighbor given by the k-th move of the buffer. */
+    public abstract void applyMove(Enc current, MoveBuffer moves, int k);
+
+    /** Transforms the neighbor given by the k-th move of the buffer back into the original solution. */
+    public abstract void undoMove(Enc current, MoveBuffer moves, int k);
+
+    /** Called by a search before it starts exploring neighbors, with its deadline.
+     * Does nothing by default: neighborhoods adapting to the time left, such as SampledNeighborhood, override it. */
+    public void searchStarted(long deadline) {}
+
+    /** Called by a search after evaluating the k-th move of the buffer, once the move has been undone.
+     * Does nothing by default: neighborhoods learning from the evaluations, such as SampledNeighborhood, override it.
+     *
+     * @param makespan Makespan of the neighbor, or Encoding.INFEASIBLE if it has no valid schedule.
+     */
+    public void moveEvaluated(Enc current, MoveBuffer moves, int k, int makespan) {}
+
 }
@@ -1,7 +1,8 @@
 package jobshop.solvers.neighborhood;
 
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
+import jobshop.jfr.NeighborhoodEvent;
+import jobshop.jfr.Recordings;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,10 @@ import java.util.List;
  * of the critical path.
  * For each block, two neighbors should be generated that respectively swap the first two and
  * last two tasks of the block.
+ *
+ * The heads of the tasks of the current solution are maintained across the swaps of a search (see
+ * CriticalPathTracker): after a move, only the part of the schedule that the move changed is recomputed to find the
+ * new critical path. A neighborhood can be shared by searches running in different threads.
  */
 public class Nowicki extends Neighborhood<ResourceOrder> {
 
@@ -68,76 +73,108 @@ public class Nowicki extends Neighborhood<ResourceOrder> {
         /** index of the other task to be swapped (in the resource order encoding) */
         public final int t2;
 
+        // tracker of the neighborhood that generated this swap, informed each time the swap is applied or undone
+        private final CriticalPathTracker tracker;
+
         /** Creates a new swap of two tasks. */
         Swap(int machine, int t1, int t2) {
+            this(machine, t1, t2, null);
+        }
+
+        Swap(int machine, int t1, int t2, CriticalPathTracker tracker) {
             this.machine = machine;
             this.t1 = t1;
             this.t2 = t2;
+            this.tracker = tracker;
         }
 
 
         /** Apply this swap on the given ResourceOrder, transforming it into a new solution. */
         @Override
         public void applyOn(ResourceOrder current) {
+            long before = current.zobristHash();
             current.swapTasks(machine,t1,t2);
+            if(tracker != null)
+                tracker.applied(machine, t1, t2, before, current.zobristHash());
         }
 
         /** Unapply this swap on the neighbor, transforming it back into the original solution. */
         @Override
         public void undoApplyOn(ResourceOrder current) {
-
+            long before = current.zobristHash();
             current.swapTasks(machine,t1,t2);
+            if(tracker != null)
+                tracker.undone(machine, t1, t2, before, current.zobristHash());
         }
     }
 
+    // each thread searches its own solution: trackers cannot be shared between threads
+    private final ThreadLocal<CriticalPathTracker> trackers = ThreadLocal.withInitial(CriticalPathTracker::new);
+
 
     @Override
     public List<Neighbor<ResourceOrder>> generateNeighbors(ResourceOrder current) {
-        // this simply converts the list of swaps into a list of neighbors
-        return new ArrayList<>(allSwaps(current));
+        MoveBuffer moves = new MoveBuffer();
+        generateMoves(current, moves);
+        List<Neighbor<ResourceOrder>> neighbors = new ArrayList<>(moves.size());
+        for(int k = 0; k < moves.size(); k++)
+            neighbors.add(new Swap(moves.machine(k), moves.first(k), moves.second(k), moves.tracker));
+        return neighbors;
     }
 
     /** Generates all swaps of the given ResourceOrder.
      * This method can be used if one wants to access the inner fields of a neighbors. */
     public List<Swap> allSwaps(ResourceOrder current) {
-        List<Swap> neighbors = new ArrayList<>();
-        // iterate over all blocks of the critical path
-        for(var block : blocksOfCriticalPath(current)) {
-            // for this block, compute all neighbors and add them to the list of neighbors
-            neighbors.addAll(neighbors(block));
+        MoveBuffer moves = new MoveBuffer();
+        generateMoves(current, moves);
+        List<Swap> swaps = new ArrayList<>(moves.size());
+        for(int k = 0; k < moves.size(); k++)
+            swaps.add(new Swap(moves.machine(k), moves.first(k), moves.second(k), moves.tracker));
+        return swaps;
+    }
+
+    /** Writes all swaps of the given ResourceOrder in the buffer, as moves of type <code>MoveBuffer.SWAP</code>. */
+    @Override
+    public void generateMoves(ResourceOrder current, MoveBuffer moves) {
+        NeighborhoodEvent event = Recordings.enabled() ? new NeighborhoodEvent() : null;
+        if(event != null)
+            event.begin();
+        CriticalPathTracker tracker = trackers.get();
+        moves.clear();
+        moves.tracker = tracker;
+        int blocks = tracker.findBlocks(current);
+        // for each block of the critical path, swap all pairs of consecutive tasks
+        for(int b = 0; b < blocks; b++) {
+            for(int i = tracker.blockFirst(b); i < tracker.blockLast(b); i++)
+                moves.add(MoveBuffer.SWAP, tracker.blockMachine(b), i, i + 1);
         }
-        return neighbors;
+        if(event != null && event.shouldCommit()) {
+            event.neighborhood = "Nowicki";
+            event.blocks = blocks;
+            event.neighbors = moves.size();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void applyMove(ResourceOrder current, MoveBuffer moves, int k) {
+        long before = current.zobristHash();
+        current.swapTasks(moves.machine(k), moves.first(k), moves.second(k));
+        if(moves.tracker != null)
+            moves.tracker.applied(moves.machine(k), moves.first(k), moves.second(k), before, current.zobristHash());
+    }
+
+    @Override
+    public void undoMove(ResourceOrder current, MoveBuffer moves, int k) {
+        long before = current.zobristHash();
+        current.swapTasks(moves.machine(k), moves.first(k), moves.second(k));
+        if(moves.tracker != null)
+            moves.tracker.undone(moves.machine(k), moves.first(k), moves.second(k), before, current.zobristHash());
     }
 
     /** Returns a list of all the blocks of the critical path. */
     List<Block> blocksOfCriticalPath(ResourceOrder order) {
-        List<Block> list= new ArrayList<>();
-        List <Task> critical=order.toSchedule().get().criticalPath();
-        int previousMach=-1,currentMach=-1,first=0,last=0,i=0,j=0;
-        Task prevtask=null;
-        for (Task task : critical){
-            if (i>0){
-                previousMach=currentMach;
-            }
-            currentMach=order.instance.machine(task);
-            if (i>0 && previousMach==currentMach){
-                last=i;
-            }else{
-                if (first<last){
-
-                    while (!prevtask.equals(order.getTaskOfMachine(previousMach,j))){
-                        j++;
-                    }
-                    Block block=new Block(previousMach,j-(last-first),j);
-                    list.add(block);
-                    j=0;
-                }
-                first=i;
-            }
-            i++;
-            prevtask=task;
-        }
-        return list;
+        return trackers.get().blocks(order);
     }
 
     /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
@@ -0,0 +1,321 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/** A candidate list built from a sample of the moves of another neighborhood, for very large instances.
+ *
+ * On instances with thousands of tasks, evaluating all the neighbors of a solution takes most of the time of an
+ * iteration. This wrapper only returns k moves of the wrapped neighborhood, selected in this order:
+ * <ol>
+ *     <li>the moves that were among the best <code>eliteSize</code> neighbors evaluated at the previous iteration and
+ *     that still exist (identified by their machine and the jobs of the two swapped tasks);</li>
+ *     <li>up to a share <code>blockShare</code> of k moves taken from the longest blocks, i.e. the longest runs of
+ *     swaps of consecutive tasks on the same machine;</li>
+ *     <li>moves drawn uniformly at random among the others.</li>
+ * </ol>
+ * k adapts to the time left: the wrapper measures the time of an iteration per returned move, and returns as many
+ * moves as can be evaluated while leaving time for <code>horizon</code> more iterations, but never less than
+ * <code>minSample</code>. Early iterations thus explore (almost) the whole neighborhood, and iterations get faster as
+ * the deadline approaches. All moves are returned when there are at most k of them.
+ *
+ * Searches must call <code>searchStarted</code> with their deadline and <code>moveEvaluated</code> after each
+ * evaluation. A search for which all moves of a sample are forbidden (e.g. taboo) can get the whole neighborhood with
+ * <code>generateAllMoves</code>. Without a deadline, the wrapper returns all moves. The state of a search is kept per thread, so the
+ * wrapper can be shared by searches running in different threads.
+ */
+public class SampledNeighborhood extends Neighborhood<ResourceOrder> {
+
+    /** Default number of elite moves kept from one iteration to the next. */
+    public static final int DEFAULT_ELITE_SIZE = 4;
+    /** Default share of the sample taken from the longest blocks. */
+    public static final double DEFAULT_BLOCK_SHARE = 0.5;
+    /** Default number of iterations for which time is left when choosing k. */
+    public static final int DEFAULT_HORIZON = 100;
+
+    final Neighborhood<ResourceOrder> neighborhood;
+    final int minSample;
+    final int eliteSize;
+    final double blockShare;
+    final int horizon;
+    final long seed;
+
+    /** State of the search of a thread. */
+    private final class State {
+        long deadline = Long.MAX_VALUE;
+        final Random random = new Random(seed);
+        // all moves of the wrapped neighborhood
+        final MoveBuffer all = new MoveBuffer();
+        // estimated time of an iteration per returned move, in nanoseconds, 0 until measured
+        double costPerMove = 0;
+        long lastGeneration = 0;
+        int lastSize = 0;
+
+        // best moves evaluated at the current iteration, sorted by makespan
+        int[] eliteMachine = new int[eliteSize], eliteFirstJob = new int[eliteSize], eliteSecondJob = new int[eliteSize];
+        int[] eliteSpan = new int[eliteSize];
+        int elites = 0;
+        // best moves evaluated at the previous iteration
+        int[] previousMachine = new int[eliteSize], previousFirstJob = new int[eliteSize], previousSecondJob = new int[eliteSize];
+        int previous = 0;
+
+        // per move of all: selected in the sample
+        boolean[] selected = new boolean[0];
+        // runs of consecutive swaps on a machine: first move and length, sorted by decreasing length
+        int[] runStart = new int[0], runLength = new int[0];
+        // moves not yet selected, to draw the random part of the sample
+        int[] candidates = new int[0];
+
+        void ensureCapacity(int size) {
+            if(selected.length < size) {
+                selected = new boolean[size];
+                runStart = new int[size];
+                runLength = new int[size];
+                candidates = new int[size];
+            }
+        }
+
+        /** Makes the moves of the current iteration the elite moves of the previous one. */
+        void rotateElites() {
+            int[] m = previousMachine, f = previousFirstJob, s = previousSecondJob;
+            previousMachine = eliteMachine;
+            previousFirstJob = eliteFirstJob;
+            previousSecondJob = eliteSecondJob;
+            previous = elites;
+            eliteMachine = m;
+            eliteFirstJob = f;
+            eliteSecondJob = s;
+            elites = 0;
+        }
+    }
+
+    private final ThreadLocal<State> states = ThreadLocal.withInitial(State::new);
+
+    /** Creates a new sampled neighborhood with the default elite size, block share and horizon.
+     *
+     * @param neighborhood Neighborhood whose moves are sampled, e.g. Nowicki.
+     * @param minSample Minimal number of moves returned (if the wrapped neighborhood has that many).
+     * @param seed Seed of the random part of the samples.
+     */
+    public SampledNeighborhood(Neighborhood<ResourceOrder> neighborhood, int minSample, long seed) {
+        this(neighborhood, minSample, DEFAULT_ELITE_SIZE, DEFAULT_BLOCK_SHARE, DEFAULT_HORIZON, seed);
+    }
+
+    /** Creates a new sampled neighborhood.
+     *
+     * @param neighborhood Neighborhood whose moves are sampled, e.g. Nowicki.
+     * @param minSample Minimal number of moves returned (if the wrapped neighborhood has that many).
+     * @param eliteSize Number of best moves of an iteration that are kept in the sample of the next one.
+     * @param blockShare Share of the sample taken from the longest blocks, between 0 and 1.
+     * @param horizon Number of iterations for which time should be left after the current one.
+     * @param seed Seed of the random part of the samples.
+     */
+    public SampledNeighborhood(Neighborhood<ResourceOrder> neighborhood, int minSample, int eliteSize,
+                               double blockShare, int horizon, long seed) {
+        if(minSample < 1)
+            throw new IllegalArgumentException("The sample must contain at least one move: " + minSample);
+        if(eliteSize < 0 || blockShare < 0 || blockShare > 1 || horizon < 1)
+            throw new IllegalArgumentException("Invalid sampling parameters");
+        this.neighborhood = neighborhood;
+        this.minSample = minSample;
+        this.eliteSize = eliteSize;
+        this.blockShare = blockShare;
+        this.horizon = horizon;
+        this.seed = seed;
+    }
+
+    @Override
+    public void searchStarted(long deadline) {
+        State state = new State();
+        state.deadline = deadline;
+        states.set(state);
+        neighborhood.searchStarted(deadline);
+    }
+
+    @Override
+    public void moveEvaluated(ResourceOrder current, MoveBuffer moves, int k, int makespan) {
+        neighborhood.moveEvaluated(current, moves, k, makespan);
+        State state = states.get();
+        if(makespan < 0 || eliteSize == 0 || (state.elites == eliteSize && makespan >= state.eliteSpan[eliteSize - 1]))
+            return;
+        // insert the move in the elite moves, sorted by makespan
+        int i = Math.min(state.elites, eliteSize - 1);
+        while(i > 0 && state.eliteSpan[i - 1] > makespan) {
+            state.eliteMachine[i] = state.eliteMachine[i - 1];
+            state.eliteFirstJob[i] = state.eliteFirstJob[i - 1];
+            state.eliteSecondJob[i] = state.eliteSecondJob[i - 1];
+            state.eliteSpan[i] = state.eliteSpan[i - 1];
+            i--;
+        }
+        int machine = moves.machine(k);
+        state.eliteMachine[i] = machine;
+        state.eliteFirstJob[i] = current.getTaskOfMachine(machine, moves.first(k)).job;
+        state.eliteSecondJob[i] = current.getTaskOfMachine(machine, moves.second(k)).job;
+        state.eliteSpan[i] = makespan;
+        state.elites = Math.min(state.elites + 1, eliteSize);
+    }
+
+    @Override
+    public void generateMoves(ResourceOrder current, MoveBuffer moves) {
+        State state = states.get();
+        long now = System.nanoTime();
+        if(state.lastSize > 0) {
+            double cost = (double) (now - state.lastGeneration) / state.lastSize;
+            state.costPerMove = state.costPerMove == 0 ? cost : 0.8 * state.costPerMove + 0.2 * cost;
+        }
+        state.lastGeneration = now;
+        state.rotateElites();
+
+        MoveBuffer all = state.all;
+        neighborhood.generateMoves(current, all);
+        int total = all.size();
+        int k = sampleSize(state, total);
+
+        moves.clear();
+        moves.tracker = all.tracker;
+        if(k >= total) {
+            for(int i = 0; i < total; i++)
+                copy(all, i, moves);
+        } else {
+            sample(current, state, k, moves);
+        }
+        state.lastSize = moves.size();
+    }
+
+    @Override
+    public void generateAllMoves(ResourceOrder current, MoveBuffer moves) {
+        // the moves of the wrapped neighborhood were generated for this solution by the last call to generateMoves
+        State state = states.get();
+        MoveBuffer all = state.all;
+        moves.clear();
+        moves.tracker = all.tracker;
+        for(int i = 0; i < all.size(); i++)
+            copy(all, i, moves);
+        // the iteration now evaluates all moves: its duration must be divided by all of them
+        state.lastSize = moves.size();
+        // the moves of the sample are evaluated again: they must not take two places among the elite moves
+        state.elites = 0;
+    }
+
+    /** Number of moves to return among the given total. */
+    private int sampleSize(State state, int total) {
+        if(state.deadline == Long.MAX_VALUE)
+            return total;
+        if(state.costPerMove == 0)
+            return Math.min(total, minSample); // first iteration: measure the cost of a small sample
+        double remaining = (state.deadline - System.currentTimeMillis()) * 1e6;
+        double affordable = remaining / horizon / state.costPerMove;
+        return (int) Math.min(total, Math.max(minSample, affordable));
+    }
+
+    /** Writes k of the moves of state.all into the buffer: elite moves, then moves of the longest blocks, then random ones. */
+    private void sample(ResourceOrder current, State state, int k, MoveBuffer moves) {
+        MoveBuffer all = state.all;
+        int total = all.size();
+        state.ensureCapacity(total);
+        Arrays.fill(state.selected, 0, total, false);
+
+        // moves that were elite at the previous iteration, best first
+        for(int e = 0; e < state.previous && moves.size() < k; e++) {
+            for(int i = 0; i < total; i++) {
+                int machine = all.machine(i);
+                if(machine == state.previousMachine[e] && !state.selected[i]
+                        && current.getTaskOfMachine(machine, all.first(i)).job == state.previousFirstJob[e]
+                        && current.getTaskOfMachine(machine, all.second(i)).job == state.previousSecondJob[e]) {
+                    state.selected[i] = true;
+                    copy(all, i, moves);
+                    break;
+                }
+            }
+        }
+
+        // moves of the longest blocks: runs of swaps of consecutive tasks on a machine
+        int runs = 0;
+        for(int i = 0; i < total; i++) {
+            if(runs > 0 && all.machine(i) == all.machine(i - 1) && all.first(i) == all.second(i - 1)) {
+                state.runLength[runs - 1]++;
+            } else {
+                state.runStart[runs] = i;
+                state.runLength[runs] = 1;
+                runs++;
+            }
+        }
+        sortRuns(state, runs);
+        int blockQuota = Math.min(k, moves.size() + (int) (blockShare * k));
+        for(int r = 0; r < runs && moves.size() < blockQuota; r++) {
+            for(int i = state.runStart[r]; i < state.runStart[r] + state.runLength[r] && moves.size() < blockQuota; i++) {
+                if(!state.selected[i]) {
+                    state.selected[i] = true;
+                    copy(all, i, moves);
+                }
+            }
+        }
+
+        // random moves among the others
+        int candidates = 0;
+        for(int i = 0; i < total; i++) {
+            if(!state.selected[i])
+                state.candidates[candidates++] = i;
+        }
+        while(moves.size() < k && candidates > 0) {
+            int c = state.random.nextInt(candidates);
+            copy(all, state.candidates[c], moves);
+            state.candidates[c] = state.candidates[--candidates];
+        }
+    }
+
+    /** Sorts the runs by decreasing length, keeping the order of the wrapped neighborhood between equal lengths. */
+    private static void sortRuns(State state, int runs) {
+        for(int i = 1; i < runs; i++) {
+            int start = state.runStart[i], length = state.runLength[i];
+            int j = i;
+            while(j > 0 && state.runLength[j - 1] < length) {
+                state.runStart[j] = state.runStart[j - 1];
+                state.runLength[j] = state.runLength[j - 1];
+                j--;
+            }
+            state.runStart[j] = start;
+            state.runLength[j] = length;
+        }
+    }
+
+    private static void copy(MoveBuffer from, int k, MoveBuffer to) {
+        to.add(from.type(k), from.machine(k), from.first(k), from.second(k));
+    }
+
+    @Override
+    public void applyMove(ResourceOrder current, MoveBuffer moves, int k) {
+        neighborhood.applyMove(current, moves, k);
+    }
+
+    @Override
+    public void undoMove(ResourceOrder current, MoveBuffer moves, int k) {
+        neighborhood.undoMove(current, moves, k);
+    }
+
+    @Override
+    public List<Neighbor<ResourceOrder>> generateNeighbors(ResourceOrder current) {
+        MoveBuffer moves = new MoveBuffer();
+        generateMoves(current, moves);
+        List<Neighbor<ResourceOrder>> neighbors = new ArrayList<>(moves.size());
+        for(int k = 0; k < moves.size(); k++) {
+            final int move = k;
+            neighbors.add(new Neighbor<ResourceOrder>() {
+                @Override
+                public void applyOn(ResourceOrder order) {
+                    applyMove(order, moves, move);
+                }
+
+                @Override
+                public void undoApplyOn(ResourceOrder order) {
+                    undoMove(order, moves, move);
+                }
+            });
+        }
+        return neighbors;
+    }
+}
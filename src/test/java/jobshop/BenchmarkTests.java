@@ -0,0 +1,74 @@
+package jobshop;
+
+import jobshop.encodings.Schedule;
+import jobshop.solvers.BasicSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class BenchmarkTests {
+
+    @Test
+    public void testPercentile() {
+        double[] values = {40, 15, 50, 35, 20};
+        assert Benchmark.percentile(values, 50) == 35;
+        assert Benchmark.percentile(values, 95) == 50;
+        assert Benchmark.percentile(values, 100) == 50;
+        assert Benchmark.percentile(values, 0) == 15;
+        assert Benchmark.percentile(values, 40) == 20;
+        // the values are not sorted in place
+        assert values[0] == 40 && values[4] == 20;
+        assert Benchmark.percentile(new double[] {7}, 95) == 7;
+    }
+
+    @Test
+    public void testTimeToTarget() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Schedule schedule = new BasicSolver().solve(instance, Long.MAX_VALUE).schedule.get();
+        int makespan = schedule.makespan();
+
+        Trace trace = new Trace();
+        trace.improved(0, makespan + 20);
+        trace.improved(3, makespan + 5);
+        trace.improved(8, makespan);
+        Result result = new Result(instance, Optional.of(schedule), Result.ExitCause.Blocked, trace, new SolverMetrics());
+        // time of the first improvement that reached the target
+        assert Benchmark.timeToTarget(result, 1000, makespan + 10) == trace.points().get(1).time;
+        assert Benchmark.timeToTarget(result, 1000, makespan + 20) == trace.points().get(0).time;
+        assert Benchmark.timeToTarget(result, 1000, makespan - 1) == -1;
+
+        // without a trace, only the final solution is known, at the end of the run
+        Result untraced = new Result(instance, Optional.of(schedule), Result.ExitCause.Blocked);
+        assert Benchmark.timeToTarget(untraced, 1000, makespan) == 1000;
+        assert Benchmark.timeToTarget(untraced, 1000, makespan - 1) == -1;
+    }
+
+    @Test
+    public void testRegressions() {
+        Map<String, Benchmark.Stats> baseline = Benchmark.parseBaseline(List.of(
+                Benchmark.HEADER,
+                "ft06,taboo10,10,100.0,120.0,50000,55000,1.00,2.00,40.0,1.00",
+                "la01,taboo10,10,100.0,120.0,50000,55000,1.00,2.00,40.0,1.00"));
+        assert baseline.size() == 2;
+        assert baseline.get("ft06,taboo10").toCsv().equals("ft06,taboo10,10,100.0,120.0,50000,55000,1.00,2.00,40.0,1.00");
+
+        List<Benchmark.Stats> current = List.of(
+                // unchanged, within the tolerance
+                new Benchmark.Stats("ft06", "taboo10", 10, 104, 130, 48000, 52000, 1.2, 2.5, 45, 1),
+                // 50% slower
+                new Benchmark.Stats("la01", "taboo10", 10, 150, 180, 50000, 55000, 1.0, 2.0, 40, 1),
+                // not in the baseline
+                new Benchmark.Stats("la02", "taboo10", 10, 500, 600, 100, 100, 50, 50, 0, 0));
+        List<String> regressions = Benchmark.regressions(baseline, current, 10, 0.5);
+        assert regressions.size() == 1 : regressions;
+        assert regressions.get(0).startsWith("la01 taboo10: runtime 150.0ms") : regressions;
+
+        // evaluations per second and gap are also checked
+        Benchmark.Stats worse = new Benchmark.Stats("ft06", "taboo10", 10, 100, 120, 40000, 45000, 2.0, 3.0, 40, 1);
+        assert Benchmark.regressions(baseline, List.of(worse), 10, 0.5).size() == 2;
+    }
+}
@@ -0,0 +1,46 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class InstanceBundleTests {
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        Path dir = Files.createTempDirectory("bundle");
+        Path file = dir.resolve("test.bundle");
+        try {
+            List<Instance> instances = List.of(
+                    Instance.fromFile(Paths.get("instances/ft10")),
+                    Instance.fromFile(Paths.get("instances/aaa1")),
+                    Instance.fromFile(Paths.get("instances/ft06")));
+            InstanceBundle.write(file, instances);
+
+            InstanceBundle bundle = InstanceBundle.open(file);
+            assert bundle.names().equals(List.of("aaa1", "ft06", "ft10"));
+            assert bundle.instancesMatching("ft").equals(List.of("ft06", "ft10"));
+            assert bundle.instancesMatching("ft1").equals(List.of("ft10"));
+            assert bundle.instancesMatching("la").isEmpty();
+            assert bundle.bestKnown("ft10") == BestKnownResults.of("ft10");
+
+            for(Instance expected : instances) {
+                Instance loaded = bundle.load(expected.name);
+                assert loaded.numJobs == expected.numJobs && loaded.numTasks == expected.numTasks;
+                for(int j = 0; j < expected.numJobs; j++) {
+                    for(int t = 0; t < expected.numTasks; t++) {
+                        assert loaded.machine(j, t) == expected.machine(j, t);
+                        assert loaded.duration(j, t) == expected.duration(j, t);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class InstanceGeneratorTests {
+
+    @Test
+    public void testRegenerateTa01() throws IOException {
+        // seeds published by Taillard for ta01
+        Instance generated = InstanceGenerator.taillard("ta01", 15, 15, 840612802, 398197754);
+        Instance ta01 = Instance.fromFile(Paths.get("instances/ta01"));
+
+        assert generated.numJobs == ta01.numJobs && generated.numTasks == ta01.numTasks;
+        assert generated.numMachines == ta01.numMachines;
+        for(int job = 0; job < ta01.numJobs; job++) {
+            for(int task = 0; task < ta01.numTasks; task++) {
+                assert generated.machine(job, task) == ta01.machine(job, task) : "machine of (" + job + ", " + task + ")";
+                assert generated.duration(job, task) == ta01.duration(job, task) : "duration of (" + job + ", " + task + ")";
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package jobshop;
+
+import jobshop.solvers.TunedSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TuningTests {
+
+    @Test
+    public void testExpand() {
+        assert Tuning.expand("estlrpt>taboo(tenure={7, 10},maxiter={100,1000})").equals(List.of(
+                "estlrpt>taboo(tenure=7,maxiter=100)", "estlrpt>taboo(tenure=7,maxiter=1000)",
+                "estlrpt>taboo(tenure=10,maxiter=100)", "estlrpt>taboo(tenure=10,maxiter=1000)"));
+        assert Tuning.expand("desestlrpt").equals(List.of("desestlrpt"));
+    }
+
+    @Test
+    public void testElimination() {
+        assert Arrays.equals(Tuning.ranks(new int[] {5, 3, 5, 1}), new double[] {3.5, 2, 3.5, 1});
+
+        // the third candidate is always the worst, the two first ones are equivalent
+        int[][] results = new int[8][];
+        for(int b = 0; b < results.length; b++)
+            results[b] = new int[] {100 + b % 2, 101 - b % 2, 120};
+        assert Arrays.equals(Tuning.inferior(results, 0.05), new boolean[] {false, false, true});
+        // too few blocks to tell them apart
+        assert Arrays.equals(Tuning.inferior(Arrays.copyOf(results, 2), 0.05), new boolean[] {false, false, false});
+    }
+
+    @Test
+    public void testTunedSolverUsesClosestSize() throws IOException {
+        TunedSolver solver = new TunedSolver(Map.of("10x5", "estlrpt", "20x20", "desestlrpt"), null, 0);
+        assert solver.solverFor(Instance.fromFile(Paths.get("instances/la01"))).equals("estlrpt");
+        assert solver.solverFor(Instance.fromFile(Paths.get("instances/ft06"))).equals("estlrpt");
+        assert solver.solverFor(Instance.fromFile(Paths.get("instances/ta21"))).equals("desestlrpt");
+    }
+}
@@ -4,10 +4,16 @@ import jobshop.Instance;
 import jobshop.Result;
 import jobshop.solvers.Solver;
 import jobshop.solvers.BasicSolver;
+import jobshop.solvers.GreedySolver;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
 
 public class EncodingTests {
 
@@ -71,4 +77,176 @@ public class EncodingTests {
         assert result.schedule.get().makespan() == sched.makespan(); // should have the same makespan
     }
 
+    @Test
+    public void testResourceOrderPacking() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        ResourceOrder order = new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 10).schedule.get());
+
+        ByteBuffer buffer = ByteBuffer.allocate(ResourceOrder.packedSize(instance));
+        order.writeTo(buffer);
+        assert !buffer.hasRemaining();
+        buffer.flip();
+
+        ResourceOrder read = ResourceOrder.readFrom(instance, buffer);
+        assert read.equals(order);
+        assert read.zobristHash() == order.zobristHash();
+        assert read.toSchedule().get().makespan() == order.toSchedule().get().makespan();
+    }
+
+    @Test
+    public void testScheduleValidator() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        JobNumbers enc = new JobNumbers(instance);
+        for(int job : new int[]{0, 1, 1, 0, 0, 1})
+            enc.addTask(job);
+        Schedule sched = enc.toSchedule().get();
+        assert ScheduleValidator.check(sched).isEmpty();
+
+        // second task of job 0 starts before the end of the first one
+        sched.setStartTime(0, 1, sched.startTime(0, 0));
+        var violation = ScheduleValidator.check(sched);
+        assert violation.isPresent() && violation.get().kind == ScheduleValidator.Violation.Kind.Precedence;
+        assert !sched.isValid();
+
+        // both first tasks start at 0 on the same machine
+        sched = new Schedule(instance);
+        for(int j = 0; j < instance.numJobs; j++) {
+            int start = 0;
+            for(int t = 0; t < instance.numTasks; t++) {
+                sched.setStartTime(j, t, start);
+                start += instance.duration(j, t);
+            }
+        }
+        violation = ScheduleValidator.check(sched);
+        assert violation.isPresent() && violation.get().kind == ScheduleValidator.Violation.Kind.MachineConflict;
+    }
+
+    @Test
+    public void testDecodeInto() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        ResourceOrder order = new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 10).schedule.get());
+        Schedule expected = order.toSchedule().get();
+
+        // the same schedule receives successive decodes
+        Schedule workspace = new Schedule(instance);
+        assert order.decodeInto(workspace) == expected.makespan();
+        assert new JobNumbers(expected).decodeInto(workspace) == expected.makespan();
+        for(int j = 0; j < instance.numJobs; j++)
+            for(int t = 0; t < instance.numTasks; t++)
+                assert workspace.startTime(j, t) == expected.startTime(j, t);
+
+        // on aaa1, (1,1) is before (0,0) on machine 0 and (0,1) is before (1,0) on machine 1: cyclic dependency
+        Instance aaa1 = Instance.fromFile(Paths.get("instances/aaa1"));
+        ResourceOrder cyclic = new ResourceOrder(aaa1);
+        cyclic.addToMachine(0, 1);
+        cyclic.addToMachine(0, 0);
+        cyclic.addToMachine(1, 0);
+        cyclic.addToMachine(1, 1);
+        cyclic.addToMachine(2, 0);
+        cyclic.addToMachine(2, 1);
+        assert cyclic.decodeInto(new Schedule(aaa1)) == Encoding.INFEASIBLE;
+        assert cyclic.toSchedule().isEmpty();
+    }
+
+    @Test
+    public void testMemoizedCriticalPath() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule schedule = new GreedySolver(GreedySolver.Priority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 10).schedule.get();
+        Schedule workspace = new Schedule(instance);
+        int makespan = new ResourceOrder(schedule).decodeInto(workspace);
+
+        // repeated queries return the memoized values
+        assert workspace.makespan() == makespan;
+        List<Task> path = workspace.criticalPath();
+        assert workspace.isCriticalPath(path);
+        assert workspace.criticalPath() == path;
+        assert workspace.endTime(workspace.lastTask()) == makespan;
+
+        // delaying the last task invalidates them
+        Task last = workspace.lastTask();
+        workspace.setStartTime(last.job, last.task, workspace.startTime(last) + 5);
+        assert workspace.makespan() == makespan + 5;
+        assert !workspace.isCriticalPath(path);
+
+        // a decode into the schedule forgets them too
+        new ResourceOrder(schedule).decodeInto(workspace);
+        assert workspace.makespan() == makespan;
+        assert workspace.criticalPath() != path && workspace.criticalPath().equals(path);
+    }
+
+    @Test
+    public void testJobNumbersBatch() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        JobNumbers enc = new JobNumbers(instance);
+        for(int j = 0; j < instance.numJobs; j++)
+            for(int t = 0; t < instance.numTasks; t++)
+                enc.addTask(j);
+
+        // successive rotations of the job numbers
+        JobNumbersBatch batch = new JobNumbersBatch(instance, 5);
+        int[] expected = new int[batch.lanes()];
+        while(!batch.isFull()) {
+            int[] rotated = new int[enc.jobs.length];
+            for(int i = 0; i < rotated.length; i++)
+                rotated[i] = enc.jobs[(i + 7 * batch.size()) % rotated.length];
+            System.arraycopy(rotated, 0, enc.jobs, 0, rotated.length);
+            expected[batch.add(enc)] = enc.toSchedule().get().makespan();
+        }
+        int[] makespans = batch.evaluate();
+        for(int lane = 0; lane < batch.size(); lane++)
+            assert makespans[lane] == expected[lane];
+
+        JobNumbers copy = new JobNumbers(instance);
+        batch.copyTo(batch.size() - 1, copy);
+        assert copy.equals(enc);
+    }
+
+
+    @Test
+    public void testGanttEscapesInstanceName() throws IOException {
+        // names of inline instances are chosen by the clients of the solver service
+        Instance instance = Instance.fromLines("a<b&c", Files.readAllLines(Paths.get("instances/aaa1")));
+        Schedule schedule = new BasicSolver().solve(instance, System.currentTimeMillis() + 1000).schedule.get();
+
+        StringWriter html = new StringWriter();
+        GanttWriter.html(schedule, html);
+        assert !html.toString().contains("a<b&c");
+        assert html.toString().contains("<title>a&lt;b&amp;c</title>");
+        assert html.toString().contains("<title>a&lt;b&amp;c: makespan " + schedule.makespan() + "</title>");
+    }
+
+    /** Zobrist hash of a resource order, computed from scratch. */
+    private static long zobristOf(ResourceOrder order) {
+        long hash = 0;
+        for(int m = 0; m < order.instance.numMachines; m++)
+            for(int i = 0; i < order.instance.numJobs; i++)
+                hash ^= Zobrist.key(m, i, order.getTaskOfMachine(m, i).job);
+        return hash;
+    }
+
+    @Test
+    public void testIncrementalZobristHash() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, Long.MAX_VALUE).schedule.get());
+        long initial = order.zobristHash();
+        assert initial == zobristOf(order);
+
+        // random swaps, not necessarily of adjacent tasks
+        Random random = new Random(0);
+        int[][] swaps = new int[200][];
+        for(int k = 0; k < swaps.length; k++) {
+            swaps[k] = new int[] {random.nextInt(instance.numMachines), random.nextInt(instance.numJobs), random.nextInt(instance.numJobs)};
+            order.swapTasks(swaps[k][0], swaps[k][1], swaps[k][2]);
+            assert order.zobristHash() == zobristOf(order) : "swap " + k;
+        }
+        assert order.zobristHash() != initial;
+
+        // undoing the swaps in reverse order gives back the initial hash
+        for(int k = swaps.length - 1; k >= 0; k--)
+            order.swapTasks(swaps[k][0], swaps[k][1], swaps[k][2]);
+        assert order.zobristHash() == initial;
+    }
 }
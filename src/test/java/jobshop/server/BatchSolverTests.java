@@ -0,0 +1,65 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class BatchSolverTests {
+
+    @Test
+    public void testManySmallRequests() throws IOException {
+        List<Instance> instances = new ArrayList<>();
+        for(String name : new String[] {"la01", "la02", "la03", "la04", "la05"})
+            instances.add(Instance.fromFile(Paths.get("instances/", name)));
+        Solver solver = Solver.getSolver("estlrpt>descent");
+
+        try(BatchSolver batch = new BatchSolver(2, 10)) {
+            List<BatchSolver.Request> requests = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + 30_000;
+            for(int i = 0; i < 1000; i++)
+                requests.add(new BatchSolver.Request(instances.get(i % instances.size()), solver, deadline));
+            List<BatchSolver.Outcome> outcomes = batch.solveAll(requests);
+
+            assert outcomes.size() == requests.size();
+            for(int i = 0; i < outcomes.size(); i++) {
+                BatchSolver.Outcome outcome = outcomes.get(i);
+                assert outcome.request == requests.get(i);
+                assert outcome.status == BatchSolver.Status.Solved : outcome.reason;
+                Schedule schedule = outcome.result.get().schedule.get();
+                assert schedule.isValid();
+                assert schedule.instance == requests.get(i).instance;
+            }
+        }
+    }
+
+    @Test
+    public void testAdmissionControl() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        try(BatchSolver batch = new BatchSolver(1, 50)) {
+            long now = System.currentTimeMillis();
+            // occupies the only slot until its deadline
+            CompletableFuture<BatchSolver.Outcome> long_ = batch.submit(
+                    new BatchSolver.Request(instance, Solver.getSolver("ils"), now + 1000));
+            // cannot be started 50ms before its deadline: rejected without waiting for the first request
+            CompletableFuture<BatchSolver.Outcome> short_ = batch.submit(
+                    new BatchSolver.Request(instance, Solver.getSolver("estlrpt"), now + 200));
+            // already too late
+            CompletableFuture<BatchSolver.Outcome> late = batch.submit(
+                    new BatchSolver.Request(instance, Solver.getSolver("estlrpt"), now + 10));
+
+            assert late.isDone() && late.join().status == BatchSolver.Status.Rejected;
+            BatchSolver.Outcome rejected = short_.join();
+            assert rejected.status == BatchSolver.Status.Rejected;
+            assert !long_.isDone();
+            assert rejected.waitTime < 500;
+            assert long_.join().status == BatchSolver.Status.Solved;
+        }
+    }
+}
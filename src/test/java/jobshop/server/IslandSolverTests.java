@@ -0,0 +1,49 @@
+package jobshop.server;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class IslandSolverTests {
+
+    @Test
+    public void testIslandsInProcess() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        int greedy = Solver.getSolver("estlrpt").solve(instance, System.currentTimeMillis() + 1000).schedule.get().makespan();
+        try(IslandWorker w1 = new IslandWorker(0); IslandWorker w2 = new IslandWorker(0)) {
+            List<InetSocketAddress> workers = List.of(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), w1.port()),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), w2.port()));
+            IslandSolver solver = IslandSolver.connect(workers, "estlrpt>ils", 100, 0);
+            long deadline = System.currentTimeMillis() + 1000;
+            Result result = solver.solve(instance, deadline);
+            // the result is returned by the deadline, with some slack for the scheduler
+            assert System.currentTimeMillis() <= deadline + 200;
+            Schedule schedule = result.schedule.get();
+            assert schedule.isValid();
+            assert schedule.makespan() < greedy;
+            assert result.trace.points().get(result.trace.points().size() - 1).makespan == schedule.makespan();
+        }
+    }
+
+    @Test
+    public void testLaunchedWorkers() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la01"));
+        try(IslandSolver solver = IslandSolver.launch(2, "estlrpt>descent", 100, 0)) {
+            // the JVMs of the workers are still cold during their first search
+            Result result = solver.solve(instance, System.currentTimeMillis() + 3000);
+            Schedule schedule = result.schedule.get();
+            assert schedule.isValid();
+            assert schedule.makespan() <= Solver.getSolver("desestlrpt").solve(instance, System.currentTimeMillis() + 1000)
+                    .schedule.get().makespan();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package jobshop.server;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SolverServerTests {
+
+    @Test
+    public void testSolveOnLocalhost() throws IOException {
+        try(SolverServer server = new SolverServer(0, 2, 8);
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            // one job from a file, one inline job and one invalid job
+            out.println("SOLVE a basic 1000 instances/ft06");
+            List<String> lines = Files.readAllLines(Paths.get("instances/aaa1"));
+            out.println("INLINE b estlrpt 1000 aaa1 " + lines.size());
+            lines.forEach(out::println);
+            out.println("SOLVE c nosuchsolver 1000 instances/ft06");
+            socket.shutdownOutput();
+
+            // results arrive in any order, the server closes the connection after the last one
+            Map<String, String[]> responses = new HashMap<>();
+            String line;
+            while((line = in.readLine()) != null) {
+                String[] words = line.split(" ");
+                responses.put(words[1], words);
+            }
+
+            assert responses.size() == 3;
+            assert responses.get("a")[0].equals("RESULT");
+            assert responses.get("a")[2].equals("ft06");
+            assert Integer.parseInt(responses.get("a")[4]) == 60; // makespan of the basic solver on ft06
+            assert responses.get("b")[0].equals("RESULT");
+            assert responses.get("b")[2].equals("aaa1");
+            assert responses.get("c")[0].equals("ERROR");
+        }
+    }
+
+    @Test
+    public void testMalformedInlineRequest() throws IOException {
+        try(SolverServer server = new SolverServer(0, 1, 8);
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            // the name of the instance is missing: its lines must be skipped, not read as requests
+            List<String> lines = Files.readAllLines(Paths.get("instances/aaa1"));
+            out.println("INLINE a estlrpt 1000 " + lines.size());
+            lines.forEach(out::println);
+            out.println("SOLVE b basic 1000 instances/ft06");
+            socket.shutdownOutput();
+
+            Map<String, String[]> responses = new HashMap<>();
+            String line;
+            while((line = in.readLine()) != null) {
+                String[] words = line.split(" ");
+                responses.put(words[1], words);
+            }
+
+            assert responses.size() == 2 : responses.keySet();
+            assert responses.get("a")[0].equals("ERROR");
+            assert responses.get("b")[0].equals("RESULT");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package jobshop.solvers;
+
+import org.junit.Test;
+
+public class EvaluationCacheTests {
+
+    @Test
+    public void testClockEviction() {
+        // a single set of WAYS slots: all hashes compete for the same slots
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.WAYS);
+        for(long hash = 1; hash <= EvaluationCache.WAYS; hash++)
+            cache.put(hash, (int) hash * 10);
+        for(long hash = 1; hash <= EvaluationCache.WAYS; hash++)
+            assert cache.contains(hash);
+
+        // hit the entry under the clock hand: it gets a second chance and the next, unreferenced, entry is evicted
+        assert cache.get(1) == 10;
+        cache.put(100, 1000);
+        assert cache.contains(1) && cache.get(1) == 10;
+        assert !cache.contains(2);
+        assert cache.get(2) == EvaluationCache.ABSENT;
+        for(long hash = 3; hash <= EvaluationCache.WAYS; hash++)
+            assert cache.contains(hash);
+        assert cache.get(100) == 1000;
+        assert cache.hits() == 3 && cache.misses() == 1;
+    }
+}
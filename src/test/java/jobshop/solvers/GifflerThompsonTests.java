@@ -0,0 +1,84 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.ScheduleValidator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class GifflerThompsonTests {
+
+    @Test
+    public void testActiveAndNonDelaySchedules() throws IOException {
+        for(String name : new String[] {"aaa1", "ft06"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+
+            // named solvers
+            for(String solver : new String[] {"gtspt", "gtlrpt", "ndspt", "ndlrpt"}) {
+                Schedule schedule = Solver.getSolver(solver).solve(instance, System.currentTimeMillis() + 1000).schedule.get();
+                assert ScheduleValidator.check(schedule).isEmpty() : solver + " on " + name;
+                assert firstDelay(schedule, solver.startsWith("nd")) == null : solver + " on " + name + ": " + firstDelay(schedule, solver.startsWith("nd"));
+            }
+
+            // all rules, with several seeds to exercise the random tie-breaks
+            for(GifflerThompson.Variant variant : GifflerThompson.Variant.values()) {
+                for(GifflerThompson.Rule rule : GifflerThompson.Rule.values()) {
+                    GifflerThompson solver = new GifflerThompson(variant, rule, 0);
+                    for(int seed = 0; seed < 10; seed++) {
+                        Schedule schedule = solver.build(instance, new Random(seed)).toSchedule().get();
+                        String what = variant + "/" + rule + "/" + seed + " on " + name;
+                        assert ScheduleValidator.check(schedule).isEmpty() : what;
+                        String delay = firstDelay(schedule, variant == GifflerThompson.Variant.NonDelay);
+                        assert delay == null : what + ": " + delay;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns a task that could start earlier without delaying any other task, or null if there is none.
+     *
+     * @param nonDelay If false, only looks for a task that fits entirely in an idle gap of its machine before its
+     *                 start (the schedule is then active). If true, also looks for a task whose machine is idle at
+     *                 some point between the end of its job predecessor and its start (the schedule is then non-delay).
+     */
+    static String firstDelay(Schedule schedule, boolean nonDelay) {
+        Instance instance = schedule.instance;
+        // (start, end) of the tasks of each machine, by increasing start time
+        List<List<int[]>> machines = new ArrayList<>();
+        for(int m = 0; m < instance.numMachines; m++)
+            machines.add(new ArrayList<>());
+        for(int job = 0; job < instance.numJobs; job++) {
+            for(int task = 0; task < instance.numTasks; task++) {
+                machines.get(instance.machine(job, task)).add(new int[] {schedule.startTime(job, task), schedule.endTime(job, task)});
+            }
+        }
+        machines.forEach(tasks -> tasks.sort(Comparator.comparingInt(t -> t[0])));
+
+        for(int job = 0; job < instance.numJobs; job++) {
+            for(int task = 0; task < instance.numTasks; task++) {
+                int ready = task == 0 ? 0 : schedule.endTime(job, task - 1);
+                int start = schedule.startTime(job, task);
+                int duration = instance.duration(job, task);
+                // idle gaps [gapStart, gapEnd) of the machine before the start of the task
+                int gapStart = 0;
+                for(int[] other : machines.get(instance.machine(job, task))) {
+                    int gapEnd = other[0];
+                    if(gapEnd > start)
+                        break;
+                    int earliest = Math.max(gapStart, ready);
+                    if(earliest + duration <= gapEnd || (nonDelay && earliest < gapEnd))
+                        return "(" + job + ", " + task + ") could start at " + earliest + " instead of " + start;
+                    gapStart = Math.max(gapStart, other[1]);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.InstanceGenerator;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.solvers.neighborhood.Nowicki;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class SolverPipelineTests {
+
+    @Test
+    public void testPipelineMatchesDirectDescent() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        // reference: steepest descent run directly on the schedule of the greedy solver, without any pipeline
+        Schedule greedy = new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, deadline).schedule.get();
+        ResourceOrder order = new ResourceOrder(greedy);
+        int expected = new DescentSolver(new Nowicki(), null).descend(order, greedy.makespan(), new Random(0),
+                new EvaluationCache(EvaluationCache.DEFAULT_CAPACITY), new SolverMetrics(), deadline,
+                new CancellationToken(), (iteration, span) -> {});
+        assert expected == order.toSchedule().get().makespan();
+        assert expected < greedy.makespan();
+
+        Result result = Solver.getSolver("estlrpt > descent").solve(instance, deadline);
+        Schedule pipeline = result.schedule.get();
+        assert pipeline.isValid();
+        assert pipeline.makespan() == expected;
+        assert result.cause == Result.ExitCause.Blocked;
+
+        // each stage starts from the solution of the previous one and can only improve it
+        Schedule taboo = Solver.getSolver("estlrpt>descent>taboo(tenure=10,maxiter=200,share=2)").solve(instance, deadline).schedule.get();
+        assert taboo.isValid();
+        assert taboo.makespan() <= expected;
+        assert result.trace.points().get(result.trace.points().size() - 1).makespan == pipeline.makespan();
+    }
+
+    @Test
+    public void testInvalidPipelines() {
+        for(String name : new String[] {"estlrpt>", "estlrpt>unknown", "estlrpt>taboo(tenure)",
+                "estlrpt>taboo(tenure=ten)", "estlrpt>descent(strategy=best)", "estlrpt>descent(tenure=10)",
+                "estlrpt(share=0)>descent", "estlrpt>descent(share=1,share=2)"}) {
+            try {
+                Solver.getSolver(name);
+                assert false : name;
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testSampledTabooOnLargeInstance() {
+        // the taboo tenures must not be stored in a matrix indexed by pairs of tasks (50000 x 50000 here)
+        Instance instance = InstanceGenerator.taillard("large", 1000, 50, 840612802, 398197754);
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        Result result = Solver.getSolver("estlrpt>taboo(tenure=10,maxiter=5,sample=20)").solve(instance, deadline);
+        Schedule schedule = result.schedule.get();
+        assert schedule.isValid();
+    }
+}
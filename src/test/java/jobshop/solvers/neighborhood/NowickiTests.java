@@ -0,0 +1,139 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Schedule;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class NowickiTests {
+
+    /** Blocks of the critical path of the order, found by decoding it and searching each block in its machine. */
+    private static List<String> expectedBlocks(ResourceOrder order) {
+        List<Task> critical = order.toSchedule().get().criticalPath();
+        List<String> blocks = new ArrayList<>();
+        int first = 0;
+        for(int i = 1; i <= critical.size(); i++) {
+            if(i < critical.size() && order.instance.machine(critical.get(i)) == order.instance.machine(critical.get(first)))
+                continue;
+            if(i - 1 > first) {
+                int machine = order.instance.machine(critical.get(first));
+                int j = 0;
+                while(!critical.get(first).equals(order.getTaskOfMachine(machine, j)))
+                    j++;
+                blocks.add(machine + ":" + j + "-" + (j + i - 1 - first));
+            }
+            first = i;
+        }
+        return blocks;
+    }
+
+    private static List<String> blocks(Nowicki nowicki, ResourceOrder order) {
+        List<String> blocks = new ArrayList<>();
+        for(Nowicki.Block block : nowicki.blocksOfCriticalPath(order))
+            blocks.add(block.machine + ":" + block.firstTask + "-" + block.lastTask);
+        return blocks;
+    }
+
+    @Test
+    public void testIncrementalBlocksMatchDecodedOnes() throws IOException {
+        Random random = new Random(0);
+        for(String name : new String[] {"ft10", "la21", "ta21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            Schedule initial = new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, Long.MAX_VALUE).schedule.get();
+            ResourceOrder order = new ResourceOrder(initial);
+            Nowicki nowicki = new Nowicki();
+
+            for(int step = 0; step < 300; step++) {
+                List<Nowicki.Swap> swaps = nowicki.allSwaps(order);
+                assert blocks(nowicki, order).equals(expectedBlocks(order)) : name + " step " + step;
+                if(swaps.isEmpty())
+                    break;
+                // evaluate a few neighbors, as a descent does
+                for(int i = 0; i < 5; i++) {
+                    Nowicki.Swap swap = swaps.get(random.nextInt(swaps.size()));
+                    swap.applyOn(order);
+                    swap.undoApplyOn(order);
+                }
+                // move to a neighbor, sometimes directly on the order or on a copy so that the tracker cannot follow
+                Nowicki.Swap move = swaps.get(random.nextInt(swaps.size()));
+                int kind = random.nextInt(10);
+                if(kind == 0) {
+                    order.swapTasks(move.machine, move.t1, move.t2);
+                } else if(kind == 1) {
+                    order = order.copy();
+                    move.applyOn(order);
+                } else {
+                    move.applyOn(order);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMoveBufferMatchesSwaps() throws IOException {
+        Random random = new Random(0);
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        Schedule initial = new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, Long.MAX_VALUE).schedule.get();
+        ResourceOrder order = new ResourceOrder(initial);
+        Nowicki nowicki = new Nowicki();
+        MoveBuffer moves = new MoveBuffer(1);
+
+        for(int step = 0; step < 200; step++) {
+            List<Nowicki.Swap> swaps = nowicki.allSwaps(order);
+            nowicki.generateMoves(order, moves);
+            assert moves.size() == swaps.size();
+            if(swaps.isEmpty())
+                break;
+            for(int k = 0; k < moves.size(); k++) {
+                assert moves.type(k) == MoveBuffer.SWAP;
+                assert moves.machine(k) == swaps.get(k).machine;
+                assert moves.first(k) == swaps.get(k).t1 && moves.second(k) == swaps.get(k).t2;
+                long hash = order.zobristHash();
+                nowicki.applyMove(order, moves, k);
+                assert order.zobristHash() != hash;
+                nowicki.undoMove(order, moves, k);
+                assert order.zobristHash() == hash;
+            }
+
+            // shuffling draws the same numbers as Collections.shuffle, so that searches do not depend on the API
+            moves.shuffle(new Random(step));
+            Collections.shuffle(swaps, new Random(step));
+            for(int k = 0; k < moves.size(); k++)
+                assert moves.machine(k) == swaps.get(k).machine && moves.first(k) == swaps.get(k).t1;
+
+            nowicki.applyMove(order, moves, random.nextInt(moves.size()));
+            assert blocks(nowicki, order).equals(expectedBlocks(order)) : "step " + step;
+        }
+    }
+
+    @Test
+    public void testCriticalPathEndingInABlock() {
+        // job 0: (m0, 3) (m1, 4)    job 1: (m0, 2) (m1, 4)
+        Instance instance = Instance.fromLines("end-block", List.of("2 2", "0 3 1 4", "0 2 1 4"));
+        ResourceOrder order = new ResourceOrder(instance);
+        order.addToMachine(0, 0);
+        order.addToMachine(0, 1);
+        order.addToMachine(1, 0);
+        order.addToMachine(1, 1);
+
+        // critical path (0, 0) -> (0, 1) -> (1, 1): it ends with the block of the two tasks of m1
+        Schedule schedule = order.toSchedule().get();
+        assert schedule.makespan() == 11;
+        assert schedule.criticalPath().equals(List.of(new Task(0, 0), new Task(0, 1), new Task(1, 1)));
+
+        Nowicki nowicki = new Nowicki();
+        assert blocks(nowicki, order).equals(List.of("1:0-1"));
+        List<Nowicki.Swap> swaps = nowicki.allSwaps(order);
+        assert swaps.size() == 1;
+        assert swaps.get(0).machine == 1 && swaps.get(0).t1 == 0 && swaps.get(0).t2 == 1;
+    }
+}
@@ -0,0 +1,89 @@
+package jobshop.solvers.neighborhood;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+public class SampledNeighborhoodTests {
+
+    private static ResourceOrder initial(String name) throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+        return new ResourceOrder(new GreedySolver(GreedySolver.Priority.EST_LRPT).solve(instance, Long.MAX_VALUE).schedule.get());
+    }
+
+    private static Set<String> moves(MoveBuffer moves) {
+        Set<String> set = new HashSet<>();
+        for(int k = 0; k < moves.size(); k++)
+            set.add(moves.machine(k) + ":" + moves.first(k) + "-" + moves.second(k));
+        return set;
+    }
+
+    private static String move(MoveBuffer moves, int k) {
+        return moves.machine(k) + ":" + moves.first(k) + "-" + moves.second(k);
+    }
+
+    @Test
+    public void testSampleUnderTimePressure() throws IOException {
+        ResourceOrder order = initial("ta71");
+        MoveBuffer all = new MoveBuffer();
+        new Nowicki().generateMoves(order, all);
+        assert all.size() > 20;
+
+        // without a deadline, all moves are returned
+        SampledNeighborhood sampled = new SampledNeighborhood(new Nowicki(), 10, 4, 0.5, 100, 0);
+        MoveBuffer moves = new MoveBuffer();
+        sampled.generateMoves(order, moves);
+        assert moves(moves).equals(moves(all));
+
+        // with no time left, only minSample moves are returned
+        sampled.searchStarted(System.currentTimeMillis());
+        sampled.generateMoves(order, moves);
+        assert moves.size() == 10;
+        assert moves(all).containsAll(moves(moves));
+        assert moves(moves).size() == moves.size();
+
+        // the whole neighborhood can still be requested, e.g. when all moves of the sample are taboo
+        MoveBuffer complete = new MoveBuffer();
+        sampled.generateAllMoves(order, complete);
+        assert moves(complete).equals(moves(all));
+
+        // the best moves evaluated at an iteration are part of the next sample
+        sampled.moveEvaluated(order, moves, 7, 100);
+        sampled.moveEvaluated(order, moves, 3, 200);
+        String best = move(moves, 7), second = move(moves, 3);
+        sampled.generateMoves(order, moves);
+        assert move(moves, 0).equals(best) && move(moves, 1).equals(second);
+
+        // moves are applied by the wrapped neighborhood
+        long hash = order.zobristHash();
+        sampled.applyMove(order, moves, 0);
+        assert order.zobristHash() != hash;
+        sampled.undoMove(order, moves, 0);
+        assert order.zobristHash() == hash;
+    }
+
+    @Test
+    public void testLongestBlocksFirst() throws IOException {
+        ResourceOrder order = initial("ta71");
+        MoveBuffer all = new MoveBuffer();
+        new Nowicki().generateMoves(order, all);
+        int longest = 0;
+        for(Nowicki.Block block : new Nowicki().blocksOfCriticalPath(order))
+            longest = Math.max(longest, block.lastTask - block.firstTask);
+
+        SampledNeighborhood sampled = new SampledNeighborhood(new Nowicki(), longest, 0, 1, 100, 0);
+        sampled.searchStarted(System.currentTimeMillis());
+        MoveBuffer moves = new MoveBuffer();
+        sampled.generateMoves(order, moves);
+        assert moves.size() == longest;
+        // the sample is exactly the swaps of a longest block
+        for(int k = 1; k < moves.size(); k++)
+            assert moves.machine(k) == moves.machine(0) && moves.first(k) == moves.second(k - 1);
+    }
+}